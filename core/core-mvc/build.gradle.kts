@@ -45,6 +45,9 @@ dependencies {
     implementation("org.springframework.data:spring-data-commons")
     implementation("org.springframework:spring-tx")
 
+    // hibernate :: @TsidId, provided by the services using jpa
+    compileOnly("org.hibernate.orm:hibernate-core")
+
     implementation("com.fasterxml.jackson.module:jackson-module-kotlin")
 
     // caffeine :: cache
@@ -2,6 +2,7 @@ package io.glory.coremvc.aop.logtrace
 
 import LogUtil.LOG_LINE
 import io.github.oshai.kotlinlogging.KotlinLogging
+import io.glory.core.util.datetime.CoarseClock
 
 private const val START_PREFIX = "--> "
 private const val END_PREFIX = "<-- "
@@ -16,7 +17,7 @@ class ThreadLocalLogTrace : LogTrace {
     override fun begin(message: String): TraceStatus {
         syncTraceId()
         val traceId = traceIdHolder.get()
-        val startTimeMs = System.currentTimeMillis()
+        val startTimeMs = CoarseClock.millis()
         val prefix = addSpace(START_PREFIX, traceId.level)
         if (traceId.isFirstLevel) {
             logger.debug { LOG_LINE }
@@ -35,7 +36,7 @@ class ThreadLocalLogTrace : LogTrace {
     }
 
     private fun complete(status: TraceStatus, e: Exception?) {
-        val endTimeMs = System.currentTimeMillis()
+        val endTimeMs = CoarseClock.millis()
         val elapsedTimeMs = endTimeMs - status.startTimeMs
 
         val traceId = status.traceId
@@ -7,10 +7,12 @@ import io.glory.coremvc.MvcCommonFeature.GLOBAL_CONTROLLER
 import io.glory.coremvc.annotation.LogTrace
 import io.glory.coremvc.response.v2.ApiResource
 import org.springframework.core.env.Environment
+import org.springframework.http.MediaType
 import org.springframework.http.ResponseEntity
 import org.springframework.web.bind.annotation.GetMapping
 import org.springframework.web.bind.annotation.PathVariable
 import org.springframework.web.bind.annotation.RequestMapping
+import org.springframework.web.bind.annotation.RequestParam
 import org.springframework.web.bind.annotation.RestController
 
 private val logger = KotlinLogging.logger {}
@@ -39,10 +41,36 @@ class GlobalController(
     @LogTrace
     fun traceKey(): ResponseEntity<ApiResource> = ApiResource.of(idGenerator.generate())
 
+    /**
+     * Reserves a block of [size] trace keys in a single step, returned as a compact range.
+     * The keys are minted with [io.glory.core.util.idgenerator.IdBlock.get].
+     */
+    @GetMapping("/trace-key/block")
+    @LogTrace
+    fun traceKeyBlock(@RequestParam size: Int): ResponseEntity<ApiResource> {
+        val block = idGenerator.reserve(checkBlockSize(size))
+
+        val result = mapOf(
+            "first" to block.first,
+            "last" to block.last,
+            "size" to block.size,
+            "counterBits" to block.counterBits
+        )
+        return ApiResource.of(result)
+    }
+
+    /**
+     * Reserves a block of [size] trace keys in a single step, returned as big-endian 64bit numbers.
+     */
+    @GetMapping("/trace-key/block", produces = [MediaType.APPLICATION_OCTET_STREAM_VALUE])
+    @LogTrace
+    fun traceKeyBlockBinary(@RequestParam size: Int): ByteArray =
+        idGenerator.reserve(checkBlockSize(size)).toByteArray()
+
     @GetMapping("/trace-key/{traceKey}")
     @LogTrace
     fun parseTraceKey(@PathVariable traceKey: Long): ResponseEntity<ApiResource> {
-        val parsed = TsidGenerator.parse(traceKey)
+        val parsed = idGenerator.layout.parse(traceKey)
         val generatedAt = TsidGenerator.generatedAt(traceKey)
         logger.info { "==> parsed.contentToString() = ${parsed.contentToString()} " }
 
@@ -57,4 +85,13 @@ class GlobalController(
         return ApiResource.of(result)
     }
 
+    private fun checkBlockSize(size: Int): Int {
+        require(size in 1..MAX_BLOCK_SIZE) { "Block size out of range [1, $MAX_BLOCK_SIZE]: $size" }
+        return size
+    }
+
+    companion object {
+        private const val MAX_BLOCK_SIZE = 65_536
+    }
+
 }
@@ -1,20 +1,34 @@
 package io.glory.coremvc.filter
 
+import io.github.oshai.kotlinlogging.KotlinLogging
+import io.glory.core.util.idgenerator.PrefetchingIdGenerator
 import io.glory.core.util.idgenerator.TsidGenerator
+import io.glory.core.util.idgenerator.tsid.node.FileLockNodeIdAllocator
+import io.glory.core.util.idgenerator.tsid.node.LeasedTsidGenerator
+import io.glory.core.util.idgenerator.tsid.node.NodeIdAllocator
+import io.glory.core.util.idgenerator.tsid.node.NodeLeaseKeeper
 import io.glory.coremvc.ConditionalOnFeature
 import io.glory.coremvc.MvcCommonFeature.CONTENT_CACHING_FILTER
 import io.glory.coremvc.MvcCommonFeature.TRACE_KEY_FILTER
+import org.springframework.beans.factory.ObjectProvider
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty
 import org.springframework.context.annotation.Bean
 import org.springframework.context.annotation.Configuration
+import java.nio.file.Path
+
+private val logger = KotlinLogging.logger {}
 
 @Configuration
 class FilterConfig {
 
     @Bean
     @ConditionalOnFeature(features = [TRACE_KEY_FILTER])
-    fun traceKeyFilter(idGenerator: TsidGenerator): TraceKeyFilter {
-        return TraceKeyFilter(idGenerator)
+    fun traceKeyFilter(
+        idGenerator: TsidGenerator,
+        prefetchingIdGenerator: ObjectProvider<PrefetchingIdGenerator>
+    ): TraceKeyFilter {
+        return TraceKeyFilter(prefetchingIdGenerator.getIfAvailable { idGenerator })
     }
 
     @Bean
@@ -23,10 +37,45 @@ class FilterConfig {
         return ContentCachingFilter()
     }
 
+    /**
+     * The [NodeLeaseKeeper] is a direct dependency, so that it is closed after the generators using its lease
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    fun idGenerator(properties: TsidProperties, nodeLeaseKeeper: NodeLeaseKeeper?): TsidGenerator {
+        val layout = properties.layout.toTsidLayout()
+        if (nodeLeaseKeeper == null) {
+            return TsidGenerator(
+                properties.workerId, properties.processId, layout, properties.sharedState?.let { Path.of(it) }
+            )
+        }
+        return LeasedTsidGenerator(nodeLeaseKeeper, layout)
+    }
+
     @Bean
     @ConditionalOnMissingBean
-    fun idGenerator(properties: TsidProperties): TsidGenerator {
-        return TsidGenerator(properties.workerId, properties.processId)
+    @ConditionalOnProperty(prefix = "tsid.node-lease", name = ["enabled"], havingValue = "true")
+    fun nodeIdAllocator(properties: TsidProperties): NodeIdAllocator {
+        return FileLockNodeIdAllocator(Path.of(properties.nodeLease.directory))
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "tsid.node-lease", name = ["enabled"], havingValue = "true")
+    fun nodeLeaseKeeper(nodeIdAllocator: NodeIdAllocator, properties: TsidProperties): NodeLeaseKeeper {
+        val lease = nodeIdAllocator.lease(properties.layout.toTsidLayout().nodeBits())
+        return NodeLeaseKeeper(lease, properties.nodeLease.renewInterval) {
+            logger.error { "# ==> Node lease lost: $it, TSID generation fails until the application is restarted" }
+        }
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "tsid.prefetch", name = ["enabled"], havingValue = "true")
+    fun prefetchingIdGenerator(idGenerator: TsidGenerator, properties: TsidProperties): PrefetchingIdGenerator {
+        return PrefetchingIdGenerator.builder(idGenerator)
+            .withCapacity(properties.prefetch.capacity)
+            .withLowWaterMark(properties.prefetch.lowWaterMark)
+            .withMaxStaleness(properties.prefetch.maxStaleness)
+            .build()
     }
 
-}
\ No newline at end of file
+}
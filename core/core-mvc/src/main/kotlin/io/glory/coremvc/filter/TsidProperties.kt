@@ -1,14 +1,86 @@
 package io.glory.coremvc.filter
 
+import io.glory.core.util.idgenerator.TsidLayout
 import org.springframework.boot.context.properties.ConfigurationProperties
+import org.springframework.boot.convert.DurationUnit
+import java.time.Duration
+import java.time.temporal.ChronoUnit
 
 @ConfigurationProperties(prefix = "tsid")
 data class TsidProperties(
     var workerId: Int = 1,
-    var processId: Int = 1
+    var processId: Int = 1,
+    var layout: Layout = Layout(),
+    var nodeLease: NodeLease = NodeLease(),
+    /**
+     * File of the state shared by the instances of the same host with the same [workerId] and [processId],
+     * see [io.glory.core.util.idgenerator.tsid.TsidFactory.Builder.withSharedState]. Not shared if null.
+     */
+    var sharedState: String? = null,
+    var prefetch: Prefetch = Prefetch()
 ) {
     init {
-        require(workerId in 0..31) { "Worker ID out of range [0, 31]: $workerId" }
-        require(processId in 0..31) { "Process ID out of range [0, 31]: $processId" }
+        val tsidLayout = layout.toTsidLayout()
+        require(workerId in 0..tsidLayout.maxWorker()) {
+            "Worker ID out of range [0, ${tsidLayout.maxWorker()}]: $workerId"
+        }
+        require(processId in 0..tsidLayout.maxProcess()) {
+            "Process ID out of range [0, ${tsidLayout.maxProcess()}]: $processId"
+        }
+    }
+
+    /**
+     * Bit layout of the trace keys, see [TsidLayout]
+     *
+     * @param workerBits number of bits of the worker ID
+     * @param processBits number of bits of the process ID
+     * @param counterBits number of bits of the counter, 2^counterBits ids/ms per node
+     */
+    data class Layout(
+        var workerBits: Int = TsidLayout.DEFAULT.workerBits(),
+        var processBits: Int = TsidLayout.DEFAULT.processBits(),
+        var counterBits: Int = TsidLayout.DEFAULT.counterBits()
+    ) {
+        fun toTsidLayout(): TsidLayout = TsidLayout(workerBits, processBits, counterBits)
+    }
+
+    /**
+     * Leasing of the node ID, see [io.glory.core.util.idgenerator.tsid.node.NodeIdAllocator]
+     * <p>When enabled, [workerId] and [processId] are ignored and the node ID is leased from [directory].
+     *
+     * @param enabled lease the node ID instead of using [workerId] and [processId]
+     * @param directory directory of the lock files, shared by every instance
+     * @param renewInterval interval between two renewals of the lease
+     */
+    data class NodeLease(
+        var enabled: Boolean = false,
+        var directory: String = System.getProperty("java.io.tmpdir") + "/tsid-nodes",
+        var renewInterval: Duration = Duration.ofSeconds(10)
+    ) {
+        init {
+            require(!renewInterval.isNegative && !renewInterval.isZero) {
+                "Renew interval must be positive: $renewInterval"
+            }
+        }
+    }
+
+    /**
+     * Prefetching of trace keys, see [io.glory.core.util.idgenerator.PrefetchingIdGenerator]
+     *
+     * @param enabled prefetch trace keys in a background thread
+     * @param capacity number of prefetched ids
+     * @param lowWaterMark number of prefetched ids at which the ring is refilled
+     * @param maxStaleness prefetched ids older than this are never handed out
+     */
+    data class Prefetch(
+        var enabled: Boolean = false,
+        var capacity: Int = 4096,
+        var lowWaterMark: Int = 1024,
+        @field:DurationUnit(ChronoUnit.MILLIS)
+        var maxStaleness: Duration = Duration.ofMillis(100)
+    ) {
+        init {
+            require(lowWaterMark in 0..capacity) { "Low-water mark out of range [0, $capacity]: $lowWaterMark" }
+        }
     }
 }
@@ -0,0 +1,28 @@
+package io.glory.coremvc.jpa
+
+import org.hibernate.annotations.IdGeneratorType
+
+/**
+ * Assigns a TSID to the annotated identifier before the entity is inserted, see [TsidIdGenerator]
+ *
+ * Unlike `GenerationType.IDENTITY`, the ids are known before the insert, so Hibernate keeps JDBC insert batching
+ * (`hibernate.jdbc.batch_size`) and `saveAll` goes out as batched inserts.
+ *
+ * ```
+ * @Id
+ * @TsidId
+ * val id: Long? = null
+ * ```
+ *
+ * @param blockSize number of ids reserved at once, 1 to reserve every id on its own
+ * @param maxAgeMillis age after which the rest of a reserved block is dropped, so that an id is never stamped more
+ * than [maxAgeMillis] before its insert
+ */
+@IdGeneratorType(TsidIdGenerator::class)
+@Target(AnnotationTarget.FIELD, AnnotationTarget.FUNCTION)
+@Retention(AnnotationRetention.RUNTIME)
+@MustBeDocumented
+annotation class TsidId(
+    val blockSize: Int = 256,
+    val maxAgeMillis: Long = 5
+)
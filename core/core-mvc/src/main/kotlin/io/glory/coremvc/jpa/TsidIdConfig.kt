@@ -0,0 +1,31 @@
+package io.glory.coremvc.jpa
+
+import io.github.oshai.kotlinlogging.KotlinLogging
+import io.glory.core.util.idgenerator.TsidGenerator
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer
+import org.springframework.context.annotation.Bean
+import org.springframework.context.annotation.Configuration
+
+private val logger = KotlinLogging.logger {}
+
+/**
+ * Makes the [TsidGenerator] bean the source of the [TsidId] identifiers
+ *
+ * The generator is passed to the session factory of this context as the [TsidIdGenerator.ID_GENERATOR] setting, so
+ * several contexts in one JVM keep their own generators.
+ */
+@Configuration
+@ConditionalOnClass(name = ["org.hibernate.id.IdentifierGenerator"])
+class TsidIdConfig {
+
+    init {
+        logger.info { "# ==> TsidIdConfig initialized" }
+    }
+
+    @Bean
+    fun tsidIdHibernatePropertiesCustomizer(idGenerator: TsidGenerator) = HibernatePropertiesCustomizer {
+        it[TsidIdGenerator.ID_GENERATOR] = idGenerator
+    }
+
+}
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.annotation.JsonInclude
 import com.fasterxml.jackson.annotation.JsonProperty
 import com.fasterxml.jackson.databind.annotation.JsonSerialize
 import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer
+import io.glory.core.util.datetime.CoarseClock
 import io.glory.coremvc.X_TRACE_KEY
 import io.glory.coremvc.response.v1.NoOffsetPageResponse
 import io.glory.coremvc.response.v1.PageResponse
@@ -29,7 +30,7 @@ data class Meta(
     @JsonFormat(pattern = "yyyy-mm-dd'T'HH:mm:ss.SSS")
     @JsonSerialize(using = LocalDateTimeSerializer::class)
     @JsonProperty("responseDt")
-    val responseDt: LocalDateTime = LocalDateTime.now(),
+    val responseDt: LocalDateTime = LocalDateTime.now(CoarseClock.systemDefaultZone()),
     @JsonProperty("size")
     val size: Int? = null,
     @JsonProperty("pageInfo")
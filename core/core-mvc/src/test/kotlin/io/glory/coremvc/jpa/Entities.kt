@@ -0,0 +1,50 @@
+package io.glory.coremvc.jpa
+
+import jakarta.persistence.*
+import org.springframework.data.jpa.repository.JpaRepository
+
+@Entity
+@Table(name = "tsid_entities")
+data class TsidEntity(
+    @Id
+    @TsidId
+    val id: Long? = null,
+    @Column(nullable = false)
+    val name: String,
+) {
+
+    constructor(name: String) : this(null, name)
+}
+
+@Entity
+@Table(name = "identity_entities")
+data class IdentityEntity(
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    val id: Long? = null,
+    @Column(nullable = false)
+    val name: String,
+) {
+
+    constructor(name: String) : this(null, name)
+}
+
+@Entity
+@Table(name = "sequence_entities")
+data class SequenceEntity(
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequence_entities_seq")
+    @SequenceGenerator(name = "sequence_entities_seq", allocationSize = 500)
+    val id: Long? = null,
+    @Column(nullable = false)
+    val name: String,
+) {
+
+    constructor(name: String) : this(null, name)
+}
+
+interface TsidEntityRepository : JpaRepository<TsidEntity, Long>
+
+interface IdentityEntityRepository : JpaRepository<IdentityEntity, Long>
+
+interface SequenceEntityRepository : JpaRepository<SequenceEntity, Long>
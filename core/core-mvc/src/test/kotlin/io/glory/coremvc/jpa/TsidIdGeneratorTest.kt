@@ -0,0 +1,118 @@
+package io.glory.coremvc.jpa
+
+import io.github.oshai.kotlinlogging.KotlinLogging
+import io.glory.core.util.idgenerator.TsidGenerator
+import jakarta.persistence.EntityManagerFactory
+import org.assertj.core.api.Assertions.assertThat
+import org.hibernate.SessionFactory
+import org.hibernate.engine.spi.SharedSessionContractImplementor
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.assertThrows
+import org.junit.jupiter.api.Disabled
+import org.mockito.Mockito.RETURNS_DEEP_STUBS
+import org.mockito.Mockito.mock
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.data.jpa.repository.JpaRepository
+import kotlin.test.Test
+
+private val logger = KotlinLogging.logger {}
+
+@SpringBootTest(properties = ["spring.jpa.properties.hibernate.generate_statistics=true"])
+class TsidIdGeneratorTest {
+
+    @Autowired
+    private lateinit var entityManagerFactory: EntityManagerFactory
+
+    @Autowired
+    private lateinit var idGenerator: TsidGenerator
+
+    @Autowired
+    private lateinit var tsidEntityRepository: TsidEntityRepository
+
+    @Autowired
+    private lateinit var identityEntityRepository: IdentityEntityRepository
+
+    @Autowired
+    private lateinit var sequenceEntityRepository: SequenceEntityRepository
+
+    private val statistics by lazy { entityManagerFactory.unwrap(SessionFactory::class.java).statistics }
+
+    @AfterEach
+    fun tearDown() {
+        tsidEntityRepository.deleteAllInBatch()
+        identityEntityRepository.deleteAllInBatch()
+        sequenceEntityRepository.deleteAllInBatch()
+    }
+
+    @Test
+    fun `saveAll assigns tsids and batches the inserts`() {
+        // given
+        val entities = (1..1_000).map { TsidEntity("name-$it") }
+        statistics.clear()
+
+        // when
+        val saved = tsidEntityRepository.saveAll(entities)
+
+        // then
+        val ids = saved.map { it.id!! }
+        assertThat(ids).doesNotHaveDuplicates()
+        assertThat(ids).isSorted()
+        assertThat(tsidEntityRepository.count()).isEqualTo(1_000L)
+        // 2 batches of 500 inserts, instead of one statement per entity
+        assertThat(statistics.prepareStatementCount).isLessThan(10L)
+    }
+
+    @Test
+    fun `a block older than the max age is dropped`() {
+        // given
+        val generator = TsidIdGenerator(TsidId(blockSize = 256, maxAgeMillis = 1), idGenerator)
+        val session = mock(SharedSessionContractImplementor::class.java)
+        val first = generator.generate(session, null) as Long
+
+        // when
+        Thread.sleep(20)
+        val second = generator.generate(session, null) as Long
+
+        // then: the second id comes from a new block, not from the rest of the first one
+        assertThat(second).isGreaterThan(first)
+        assertThat(TsidGenerator.timestampOf(second) - TsidGenerator.timestampOf(first)).isGreaterThanOrEqualTo(10L)
+    }
+
+    @Test
+    fun `fails to build without the id generator setting`() {
+        // given: a session factory whose settings lack TsidIdGenerator.ID_GENERATOR
+        val context = mock(CustomIdGeneratorCreationContext::class.java, RETURNS_DEEP_STUBS)
+        val member = TsidEntity::class.java.getDeclaredField("id")
+
+        // when, then
+        val e = assertThrows(IllegalStateException::class.java) { TsidIdGenerator(TsidId(), member, context) }
+        assertThat(e.message).contains(TsidIdGenerator.ID_GENERATOR, "TsidEntity.id")
+    }
+
+    @Test
+    @Disabled("heavy test")
+    fun `saveAll of 10k entities - tsid vs identity vs sequence`() {
+        val count = 10_000
+        repeat(3) { round ->
+            val tsid = measure(tsidEntityRepository) { TsidEntity("name-$it") }
+            val identity = measure(identityEntityRepository) { IdentityEntity("name-$it") }
+            val sequence = measure(sequenceEntityRepository) { SequenceEntity("name-$it") }
+            logger.info { "==> round $round, $count entities: tsid = $tsid , identity = $identity , sequence = $sequence" }
+        }
+    }
+
+    private fun <T : Any> measure(repository: JpaRepository<T, Long>, entity: (Int) -> T): String {
+        val entities = (1..10_000).map(entity)
+        repository.deleteAllInBatch()
+        statistics.clear()
+
+        val start = System.nanoTime()
+        repository.saveAll(entities)
+        val millis = (System.nanoTime() - start) / 1_000_000
+
+        return "${millis}ms / ${statistics.prepareStatementCount} statements"
+    }
+
+}
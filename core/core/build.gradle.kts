@@ -4,6 +4,8 @@ plugins {
     id("org.springframework.boot") version "3.4.3"
     id("io.spring.dependency-management") version "1.1.7"
     kotlin("jvm") version "2.0.0"
+    id("me.champeau.jmh") version "0.7.2"
+    `java-test-fixtures`
 }
 
 val prjName = "glory-core"
@@ -11,6 +13,7 @@ val group = "io.glory"
 val version = "0.0.1"
 
 val kotlinLoggingVer = "7.0.0"
+val jmhVer = "1.37"
 
 java {
     toolchain {
@@ -32,7 +35,8 @@ dependencies {
 
 kotlin {
     compilerOptions {
-        freeCompilerArgs.addAll("-Xjsr305=strict")
+        // compile the default members of Kotlin interfaces, such as IdGenerator, to Java default methods
+        freeCompilerArgs.addAll("-Xjsr305=strict", "-Xjvm-default=all-compatibility")
     }
 }
 
@@ -40,6 +44,20 @@ tasks.withType<Test> {
     useJUnitPlatform()
 }
 
+// ./gradlew jmh [-Pjmh.includes=TsidGeneratorBenchmark]
+// results: build/results/jmh/results.json
+jmh {
+    jmhVersion.set(jmhVer)
+    includes.set(listOfNotNull(findProperty("jmh.includes")?.toString()))
+    fork.set(1)
+    warmupIterations.set(3)
+    warmup.set("2s")
+    iterations.set(5)
+    timeOnIteration.set("2s")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+}
+
 tasks.getByName<BootJar>("bootJar") {
     enabled = false
 }
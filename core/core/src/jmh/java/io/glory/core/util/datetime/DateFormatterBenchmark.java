@@ -0,0 +1,69 @@
+package io.glory.core.util.datetime;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * {@link DateFormatter} with cached formatters against compiling the pattern on
+ * every call, as {@code DateTimeFormatter.ofPattern(pattern)} does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DateFormatterBenchmark {
+
+    private static final String CUSTOM_FORMAT = "yyyy.MM.dd HH:mm";
+
+    private final LocalDateTime dateTime = LocalDateTime.of(2024, 1, 2, 3, 4, 5);
+    private final String        date     = "2024-01-02";
+
+    @Benchmark
+    public String formatOfPattern() {
+        return dateTime.format(DateTimeFormatter.ofPattern(DateFormatter.DATE_TIME_FORMAT));
+    }
+
+    @Benchmark
+    public String formatBuiltIn() {
+        return DateFormatter.toStr(dateTime);
+    }
+
+    @Benchmark
+    public String formatCustomOfPattern() {
+        return dateTime.format(DateTimeFormatter.ofPattern(CUSTOM_FORMAT));
+    }
+
+    @Benchmark
+    public String formatCustomCached() {
+        return DateFormatter.toStr(dateTime, CUSTOM_FORMAT);
+    }
+
+    @Benchmark
+    public String formatKoreanOfPattern() {
+        return dateTime.format(DateTimeFormatter.ofPattern(DateFormatter.KOREAN_DATE_TIME_FORMAT));
+    }
+
+    @Benchmark
+    public String formatKorean() {
+        return DateFormatter.toKorean(dateTime);
+    }
+
+    @Benchmark
+    public LocalDate parseOfPattern() {
+        return LocalDate.parse(date, DateTimeFormatter.ofPattern(DateFormatter.DATE_FORMAT));
+    }
+
+    @Benchmark
+    public LocalDate parseBuiltIn() {
+        return DateFormatter.toDate(date);
+    }
+
+}
@@ -0,0 +1,91 @@
+package io.glory.core.util.idgenerator;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * {@link TsidCodec} against raw 8-byte longs: encoding and decoding a sequence
+ * of IDs. The encoded bytes per ID of each order are printed by the setup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TsidCodecBenchmark {
+
+    @Param({"100000"})
+    public int size;
+
+    @Param({"sorted", "nearlySorted", "random"})
+    public String order;
+
+    private long[]     ids;
+    private ByteBuffer encoded;
+    private ByteBuffer raw;
+    private ByteBuffer target;
+    private long[]     decoded;
+
+    @Setup
+    public void setup() {
+        this.ids = new long[size];
+        new TsidGenerator(1, 1).generate(ids, 0, size);
+        final SplittableRandom random = new SplittableRandom(1);
+        if (order.equals("nearlySorted")) {
+            // swaps neighbours within windows of 16 ids
+            for (int i = 0; i < size; i++) {
+                final int j = Math.min(size - 1, i + random.nextInt(16));
+                final long id = ids[i];
+                ids[i] = ids[j];
+                ids[j] = id;
+            }
+        } else if (order.equals("random")) {
+            for (int i = size - 1; i > 0; i--) {
+                final int j = random.nextInt(i + 1);
+                final long id = ids[i];
+                ids[i] = ids[j];
+                ids[j] = id;
+            }
+        }
+
+        this.decoded = new long[size];
+        this.target = ByteBuffer.allocateDirect(TsidCodec.maxEncodedLength(size));
+        this.encoded = TsidCodec.encode(ids, 0, size, ByteBuffer.allocateDirect(TsidCodec.maxEncodedLength(size)))
+                .flip();
+        this.raw = ByteBuffer.allocateDirect(size * Long.BYTES);
+        raw.asLongBuffer().put(ids);
+        System.out.printf("%n%s: %.2f bytes per id (raw: %s)%n", order, (double)encoded.limit() / size, Long.BYTES);
+    }
+
+    @Benchmark
+    public ByteBuffer codecEncode() {
+        return TsidCodec.encode(ids, 0, size, target.clear());
+    }
+
+    @Benchmark
+    public ByteBuffer rawEncode() {
+        target.clear().asLongBuffer().put(ids);
+        return target;
+    }
+
+    @Benchmark
+    public long[] codecDecode() {
+        new TsidCodec.Decoder(encoded.rewind()).read(decoded, 0, size);
+        return decoded;
+    }
+
+    @Benchmark
+    public long[] rawDecode() {
+        raw.rewind().asLongBuffer().get(decoded);
+        return decoded;
+    }
+
+}
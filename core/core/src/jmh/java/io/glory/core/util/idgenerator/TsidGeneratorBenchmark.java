@@ -0,0 +1,54 @@
+package io.glory.core.util.idgenerator;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * {@link TsidGenerator#generate()} shared by 1, 4, 16 and 64 threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public abstract class TsidGeneratorBenchmark {
+
+    private TsidGenerator idGenerator;
+
+    @Setup
+    public void setup() {
+        this.idGenerator = new TsidGenerator(1, 1);
+    }
+
+    @Benchmark
+    public long generate() {
+        return idGenerator.generate();
+    }
+
+    @Threads(1)
+    public static class Threads1 extends TsidGeneratorBenchmark {
+
+    }
+
+    @Threads(4)
+    public static class Threads4 extends TsidGeneratorBenchmark {
+
+    }
+
+    @Threads(16)
+    public static class Threads16 extends TsidGeneratorBenchmark {
+
+    }
+
+    @Threads(64)
+    public static class Threads64 extends TsidGeneratorBenchmark {
+
+    }
+
+}
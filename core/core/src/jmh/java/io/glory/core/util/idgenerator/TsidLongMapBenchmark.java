@@ -0,0 +1,112 @@
+package io.glory.core.util.idgenerator;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * {@link TsidLongMap} and {@link TsidLongLongMap} against {@code HashMap<Long, V>}:
+ * lookups and updates of present IDs and building a map from IDs in time order.
+ * The memory footprint is compared by {@code TsidLongMapTest}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TsidLongMapBenchmark {
+
+    @Param({"1000000"})
+    public int size;
+
+    private long[]              ids;
+    private Object              value;
+    private TsidLongMap<Object> tsidLongMap;
+    private TsidLongLongMap     tsidLongLongMap;
+    private Map<Long, Object>   hashMap;
+    private Map<Long, Long>     hashLongMap;
+    private int                 index;
+
+    @Setup
+    public void setup() {
+        this.ids = new long[size];
+        new TsidGenerator(1, 1).generate(ids, 0, size);
+        this.value = new Object();
+        this.tsidLongMap = new TsidLongMap<>();
+        this.tsidLongLongMap = new TsidLongLongMap();
+        this.hashMap = new HashMap<>();
+        this.hashLongMap = new HashMap<>();
+        for (long id : ids) {
+            tsidLongMap.put(id, value);
+            tsidLongLongMap.put(id, id);
+            hashMap.put(id, value);
+            hashLongMap.put(id, id);
+        }
+    }
+
+    @Benchmark
+    public Object tsidLongMapGet() {
+        return tsidLongMap.get(nextId());
+    }
+
+    @Benchmark
+    public Object hashMapGet() {
+        return hashMap.get(nextId());
+    }
+
+    @Benchmark
+    public Object tsidLongMapPut() {
+        return tsidLongMap.put(nextId(), value);
+    }
+
+    @Benchmark
+    public Object hashMapPut() {
+        return hashMap.put(nextId(), value);
+    }
+
+    @Benchmark
+    public long tsidLongLongMapAddTo() {
+        return tsidLongLongMap.addTo(nextId(), 1L);
+    }
+
+    @Benchmark
+    public Long hashLongMapMerge() {
+        return hashLongMap.merge(nextId(), 1L, Long::sum);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public TsidLongMap<Object> tsidLongMapBuild() {
+        final TsidLongMap<Object> map = new TsidLongMap<>();
+        for (long id : ids) {
+            map.put(id, value);
+        }
+        return map;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Map<Long, Object> hashMapBuild() {
+        final Map<Long, Object> map = new HashMap<>();
+        for (long id : ids) {
+            map.put(id, value);
+        }
+        return map;
+    }
+
+    private long nextId() {
+        // a stride coprime with the size visits every id in a scattered order
+        index = (index + 7_919) % size;
+        return ids[index];
+    }
+
+}
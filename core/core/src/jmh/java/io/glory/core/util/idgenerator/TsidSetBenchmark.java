@@ -0,0 +1,82 @@
+package io.glory.core.util.idgenerator;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * {@link TsidSet} against {@code HashSet<Long>}: lookups of present IDs and
+ * building a set from IDs in time order. The memory footprint is compared by
+ * {@code TsidSetTest}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TsidSetBenchmark {
+
+    @Param({"1000000"})
+    public int size;
+
+    private long[]    ids;
+    private TsidSet   tsidSet;
+    private Set<Long> hashSet;
+    private int       index;
+
+    @Setup
+    public void setup() {
+        this.ids = new long[size];
+        new TsidGenerator(1, 1).generate(ids, 0, size);
+        this.tsidSet = new TsidSet();
+        tsidSet.addAll(ids, 0, size);
+        this.hashSet = new HashSet<>();
+        for (long id : ids) {
+            hashSet.add(id);
+        }
+    }
+
+    @Benchmark
+    public boolean tsidSetContains() {
+        return tsidSet.contains(nextId());
+    }
+
+    @Benchmark
+    public boolean hashSetContains() {
+        return hashSet.contains(nextId());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public TsidSet tsidSetBuild() {
+        final TsidSet set = new TsidSet();
+        set.addAll(ids, 0, size);
+        return set;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Set<Long> hashSetBuild() {
+        final Set<Long> set = new HashSet<>();
+        for (long id : ids) {
+            set.add(id);
+        }
+        return set;
+    }
+
+    private long nextId() {
+        // a stride coprime with the size visits every id in a scattered order
+        index = (index + 7_919) % size;
+        return ids[index];
+    }
+
+}
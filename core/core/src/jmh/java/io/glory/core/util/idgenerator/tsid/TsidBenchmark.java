@@ -0,0 +1,83 @@
+package io.glory.core.util.idgenerator.tsid;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * {@link Tsid#fast()} and the string conversions of {@link Tsid}.
+ * <p>
+ * The conversions do not share mutable state, the nested classes with more
+ * threads show how they scale with the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public abstract class TsidBenchmark {
+
+    @Param({"32", "62"})
+    public int base;
+
+    private Tsid   tsid;
+    private String string;
+
+    @Setup
+    public void setup() {
+        this.tsid = Tsid.from(0x0123456789abcdefL);
+        this.string = tsid.toString();
+    }
+
+    @Benchmark
+    public Tsid fast() {
+        return Tsid.fast();
+    }
+
+    @Benchmark
+    public String canonicalString() {
+        return tsid.toString();
+    }
+
+    @Benchmark
+    public Tsid fromCanonicalString() {
+        return Tsid.from(string);
+    }
+
+    @Benchmark
+    public String encode() {
+        return tsid.encode(base);
+    }
+
+    @Benchmark
+    public String format() {
+        return tsid.format("K%S");
+    }
+
+    @Threads(1)
+    public static class Threads1 extends TsidBenchmark {
+
+    }
+
+    @Threads(4)
+    public static class Threads4 extends TsidBenchmark {
+
+    }
+
+    @Threads(16)
+    public static class Threads16 extends TsidBenchmark {
+
+    }
+
+    @Threads(64)
+    public static class Threads64 extends TsidBenchmark {
+
+    }
+
+}
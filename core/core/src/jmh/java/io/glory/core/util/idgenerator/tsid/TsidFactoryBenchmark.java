@@ -0,0 +1,91 @@
+package io.glory.core.util.idgenerator.tsid;
+
+import java.security.SecureRandom;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * {@link TsidFactory#create()} with each random strategy, in both the locked
+ * and the lock-free mode.
+ * <p>
+ * The factory is shared by all threads, so the nested classes measure the
+ * contention at 1, 4, 16 and 64 threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public abstract class TsidFactoryBenchmark {
+
+    /**
+     * <ul>
+     * <li>secure: {@link SecureRandom}, the default</li>
+     * <li>securePool: {@link SecureRandom} behind a pool of 1024 values</li>
+     * <li>random: a shared {@link Random}</li>
+     * <li>threadLocal: {@link ThreadLocalRandom}</li>
+     * <li>zero: a counter reset to zero, like {@code TsidGenerator}</li>
+     * </ul>
+     */
+    @Param({"secure", "securePool", "random", "threadLocal", "zero"})
+    public String random;
+
+    @Param({"false", "true"})
+    public boolean lockFree;
+
+    private TsidFactory factory;
+
+    @Setup
+    public void setup() {
+        final TsidFactory.Builder builder = TsidFactory.builder().withNode(1).withLockFree(lockFree);
+        switch (random) {
+            case "secure" -> builder.withRandom(new SecureRandom());
+            case "securePool" -> builder.withRandom(new SecureRandom()).withRandomPool(1024);
+            case "random" -> builder.withRandom(new Random());
+            case "threadLocal" -> builder.withRandomFunction(() -> ThreadLocalRandom.current().nextInt());
+            case "zero" -> builder.withRandomFunction(byte[]::new);
+            default -> throw new IllegalArgumentException(String.format("Unknown random: %s", random));
+        }
+        this.factory = builder.build();
+    }
+
+    @Benchmark
+    public Tsid create() {
+        return factory.create();
+    }
+
+    @Benchmark
+    public long createLong() {
+        return factory.createLong();
+    }
+
+    @Threads(1)
+    public static class Threads1 extends TsidFactoryBenchmark {
+
+    }
+
+    @Threads(4)
+    public static class Threads4 extends TsidFactoryBenchmark {
+
+    }
+
+    @Threads(16)
+    public static class Threads16 extends TsidFactoryBenchmark {
+
+    }
+
+    @Threads(64)
+    public static class Threads64 extends TsidFactoryBenchmark {
+
+    }
+
+}
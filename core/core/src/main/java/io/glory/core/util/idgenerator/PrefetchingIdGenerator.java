@@ -0,0 +1,402 @@
+package io.glory.core.util.idgenerator;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+import io.glory.core.util.datetime.CoarseClock;
+
+/**
+ * An {@link IdGenerator} decorator that hands out pre-generated IDs.
+ * <p>
+ * A background thread keeps a bounded lock-free ring of IDs generated in bulk
+ * by the delegate. {@link #generate()} normally just takes the next ID from the
+ * ring. The refill thread refills the ring when it drops to the low-water mark,
+ * and when the ring is empty the ID is generated synchronously by the delegate.
+ * <p>
+ * Every batch is stamped with the time it was generated at. An ID older than the
+ * staleness budget is never handed out, so the IDs stay time-ordered within the
+ * budget. The refill thread wakes up once per budget to evict the stale IDs, but
+ * does not refill an idle ring. A caller that still meets stale IDs skips a few
+ * of them, then falls back to the delegate, so a call never walks the ring.
+ * <p>
+ * The bulk {@link #generate(long[], int, int)} goes straight to the delegate.
+ * <p>
+ * {@link #close()} stops the refill thread.
+ */
+public class PrefetchingIdGenerator implements IdGenerator, AutoCloseable {
+
+    private static final int             MAX_BATCH_SIZE  = 1024;
+    private static final int             MAX_STALE_SKIPS = 4;
+    private final        IdGenerator     delegate;
+    private final        int             capacity;
+    private final        int             mask;
+    private final        int             lowWaterMark;
+    private final        long            maxStalenessMs;
+    private final        LongSupplier    timeFunction;
+    private final        long[]          values;
+    private final        long[]          stamps;
+    private final        long[]          batch;
+    /**
+     * Vyukov's bounded queue: a slot is ready to be taken at position {@code pos}
+     * when its sequence is {@code pos + 1}, and ready to be filled when it is
+     * {@code pos}.
+     */
+    private final        AtomicLongArray sequences;
+    private final        AtomicLong      head            = new AtomicLong();
+    private final        AtomicBoolean   refillRequested = new AtomicBoolean();
+    private final        LongAdder       hits            = new LongAdder();
+    private final        LongAdder       misses          = new LongAdder();
+    private final        LongAdder       stale           = new LongAdder();
+    private final        Thread          refillThread;
+    private volatile     long            tail;
+    private volatile     boolean         running         = true;
+    // the batch being published, only used by the refill thread
+    private              int             batchOffset;
+    private              int             batchLength;
+    private              long            batchStamp;
+
+    private PrefetchingIdGenerator(Builder builder) {
+        this.delegate = builder.delegate;
+        this.capacity = builder.getCapacity();
+        this.mask = capacity - 1;
+        this.lowWaterMark = builder.getLowWaterMark();
+        this.maxStalenessMs = builder.getMaxStaleness().toMillis();
+        this.timeFunction = builder.getTimeFunction();
+
+        this.values = new long[capacity];
+        this.stamps = new long[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        this.batch = new long[Math.min(capacity, MAX_BATCH_SIZE)];
+
+        // fill the ring once at start
+        this.refillRequested.set(true);
+        this.refillThread = builder.getThreadFactory().newThread(this::refillLoop);
+        this.refillThread.start();
+    }
+
+    /**
+     * Returns a builder for a decorator of the given generator.
+     *
+     * @param delegate the generator of the IDs
+     * @return {@link Builder}
+     */
+    public static Builder builder(IdGenerator delegate) {
+        return new Builder(delegate);
+    }
+
+    /**
+     * Returns a prefetched ID, or an ID generated synchronously by the delegate if
+     * no fresh ID is available.
+     *
+     * @return 64bit id
+     */
+    public long generate() {
+        long pos = head.get();
+        for (int skips = 0; skips < MAX_STALE_SKIPS; ) {
+            final int idx = (int)(pos & mask);
+            final long dif = sequences.getAcquire(idx) - (pos + 1);
+
+            if (dif == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    final long id = values[idx];
+                    final long stamp = stamps[idx];
+                    sequences.setRelease(idx, pos + capacity);
+
+                    if (tail - (pos + 1) <= lowWaterMark) {
+                        requestRefill();
+                    }
+                    if (timeFunction.getAsLong() - stamp <= maxStalenessMs) {
+                        hits.increment();
+                        return id;
+                    }
+                    stale.increment();
+                    skips++;
+                }
+                pos = head.get();
+            } else if (dif < 0) {
+                break;
+            } else {
+                pos = head.get();
+            }
+        }
+        // empty, or stale: the refill thread evicts the rest
+        misses.increment();
+        requestRefill();
+        return delegate.generate();
+    }
+
+    /**
+     * Fills a range of an array with IDs generated by the delegate.
+     *
+     * @param ids    the destination array
+     * @param offset the index of the first id
+     * @param length the amount of ids
+     */
+    public void generate(long[] ids, int offset, int length) {
+        delegate.generate(ids, offset, length);
+    }
+
+    /**
+     * Reserves a block of IDs from the delegate.
+     *
+     * @param size the amount of ids, greater than zero
+     * @return the block of ids
+     */
+    public IdBlock reserve(int size) {
+        return delegate.reserve(size);
+    }
+
+    /**
+     * @return the number of IDs taken from the ring
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of IDs generated synchronously because the ring was empty
+     *         or stale
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the number of prefetched IDs discarded because they were stale
+     */
+    public long getStale() {
+        return stale.sum();
+    }
+
+    /**
+     * @return the approximate number of IDs in the ring
+     */
+    public int size() {
+        return (int)Math.max(0, tail - head.get());
+    }
+
+    /**
+     * Stops the refill thread. IDs are generated synchronously afterward.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(refillThread);
+    }
+
+    private void requestRefill() {
+        if (!refillRequested.get() && refillRequested.compareAndSet(false, true)) {
+            LockSupport.unpark(refillThread);
+        }
+    }
+
+    private void refillLoop() {
+        final long parkNanos = TimeUnit.MILLISECONDS.toNanos(maxStalenessMs);
+        while (running) {
+            try {
+                evictStale();
+                if (refillRequested.compareAndSet(true, false)) {
+                    refill();
+                } else {
+                    LockSupport.parkNanos(this, parkNanos);
+                }
+            } catch (RuntimeException e) {
+                // keep the thread alive, callers fall back to the delegate
+            }
+        }
+
+        // drain, so that callers go straight to the delegate
+        head.set(tail);
+    }
+
+    void refill() {
+        while (running) {
+            if (batchOffset == batchLength || timeFunction.getAsLong() - batchStamp > maxStalenessMs) {
+                final int free = capacity - size();
+                if (free <= 0) {
+                    return;
+                }
+                batchOffset = 0;
+                batchLength = Math.min(free, batch.length);
+                batchStamp = timeFunction.getAsLong();
+                delegate.generate(batch, 0, batchLength);
+            }
+
+            long pos = tail;
+            for (; batchOffset < batchLength; batchOffset++) {
+                final int idx = (int)(pos & mask);
+                if (sequences.getAcquire(idx) != pos) {
+                    // full: the slot has not been released by a caller yet, the rest
+                    // of the batch is published by the next refill if still fresh
+                    return;
+                }
+                values[idx] = batch[batchOffset];
+                stamps[idx] = batchStamp;
+                sequences.setRelease(idx, pos + 1);
+                tail = ++pos;
+            }
+        }
+    }
+
+    private void evictStale() {
+        final long now = timeFunction.getAsLong();
+        for (; ; ) {
+            final long pos = head.get();
+            final int idx = (int)(pos & mask);
+            if (sequences.getAcquire(idx) != pos + 1 || now - stamps[idx] <= maxStalenessMs) {
+                return;
+            }
+            if (head.compareAndSet(pos, pos + 1)) {
+                sequences.setRelease(idx, pos + capacity);
+                stale.increment();
+            }
+        }
+    }
+
+    /**
+     * A nested class that builds a {@link PrefetchingIdGenerator}.
+     */
+    public static class Builder {
+
+        private final IdGenerator   delegate;
+        private       Integer       capacity;
+        private       Integer       lowWaterMark;
+        private       Duration      maxStaleness;
+        private       LongSupplier  timeFunction;
+        private       ThreadFactory threadFactory;
+
+        private Builder(IdGenerator delegate) {
+            if (delegate == null) {
+                throw new IllegalArgumentException("Delegate must not be null");
+            }
+            this.delegate = delegate;
+        }
+
+        /**
+         * Set the ring capacity, rounded up to a power of two. Default: 4096.
+         *
+         * @param capacity a number between 2 and 2^20
+         * @return {@link Builder}
+         */
+        public Builder withCapacity(Integer capacity) {
+            this.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * Set the size of the ring at which the refill thread is woken up. Default: a
+         * quarter of the capacity.
+         *
+         * @param lowWaterMark a number between 0 and the capacity
+         * @return {@link Builder}
+         */
+        public Builder withLowWaterMark(Integer lowWaterMark) {
+            this.lowWaterMark = lowWaterMark;
+            return this;
+        }
+
+        /**
+         * Set the staleness budget. A prefetched ID older than the budget is never
+         * handed out. Default: 100ms.
+         *
+         * @param maxStaleness a duration of at least 1ms
+         * @return {@link Builder}
+         */
+        public Builder withMaxStaleness(Duration maxStaleness) {
+            this.maxStaleness = maxStaleness;
+            return this;
+        }
+
+        /**
+         * Set the time function used to stamp the prefetched IDs. Default:
+         * {@link CoarseClock}.
+         *
+         * @param timeFunction a function that returns the current time in milliseconds
+         * @return {@link Builder}
+         */
+        public Builder withTimeFunction(LongSupplier timeFunction) {
+            this.timeFunction = timeFunction;
+            return this;
+        }
+
+        /**
+         * Set the factory of the refill thread, for example
+         * {@code Thread.ofVirtual().factory()}. Default: a platform daemon thread.
+         *
+         * @param threadFactory a thread factory
+         * @return {@link Builder}
+         */
+        public Builder withThreadFactory(ThreadFactory threadFactory) {
+            this.threadFactory = threadFactory;
+            return this;
+        }
+
+        /**
+         * Returns a started {@link PrefetchingIdGenerator}.
+         *
+         * @return {@link PrefetchingIdGenerator}
+         * @throws IllegalArgumentException if an option is out of range
+         */
+        public PrefetchingIdGenerator build() {
+            return new PrefetchingIdGenerator(this);
+        }
+
+        int getCapacity() {
+            if (this.capacity == null) {
+                this.capacity = 4096;
+            }
+            if (capacity < 2 || capacity > (1 << 20)) {
+                throw new IllegalArgumentException(String.format("Capacity out of range [2, 2^20]: %s", capacity));
+            }
+            return Integer.highestOneBit(capacity - 1) << 1;
+        }
+
+        int getLowWaterMark() {
+            final int max = getCapacity();
+            if (this.lowWaterMark == null) {
+                this.lowWaterMark = max / 4;
+            }
+            if (lowWaterMark < 0 || lowWaterMark > max) {
+                throw new IllegalArgumentException(
+                        String.format("Low-water mark out of range [0, %s]: %s", max, lowWaterMark));
+            }
+            return this.lowWaterMark;
+        }
+
+        Duration getMaxStaleness() {
+            if (this.maxStaleness == null) {
+                this.maxStaleness = Duration.ofMillis(100);
+            }
+            if (maxStaleness.toMillis() < 1) {
+                throw new IllegalArgumentException(String.format("Staleness budget below 1ms: %s", maxStaleness));
+            }
+            return this.maxStaleness;
+        }
+
+        LongSupplier getTimeFunction() {
+            if (this.timeFunction == null) {
+                this.timeFunction = CoarseClock::millis;
+            }
+            return this.timeFunction;
+        }
+
+        ThreadFactory getThreadFactory() {
+            if (this.threadFactory == null) {
+                this.threadFactory = Thread.ofPlatform().name("id-prefetch-", 0).daemon().factory();
+            }
+            return this.threadFactory;
+        }
+
+    }
+
+}
@@ -0,0 +1,146 @@
+package io.glory.core.util.idgenerator;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.glory.core.util.datetime.CoarseClock;
+import io.glory.core.util.idgenerator.tsid.TsidFactory;
+
+/**
+ * A TSID generator that splits the counter into per-thread lanes.
+ * <p>
+ * The high {@code laneBits} of the counter bits of a {@link TsidLayout} identify
+ * a lane, and every lane owns its own lock-free {@link TsidFactory}.
+ * A thread is assigned a lane round-robin on its first call and keeps it, so
+ * the IDs of a thread are sorted. The first {@code 2^laneBits} threads get
+ * distinct lanes; with more threads, each lane is shared by about
+ * {@code threads / 2^laneBits} of them, which then contend on the
+ * compare-and-set of its factory, without blocking.
+ * <p>
+ * Layout (64 bits):
+ * <pre>
+ * | time (42) | worker | process | lane (laneBits) | sequence (counterBits - laneBits) |
+ * </pre>
+ * <p>
+ * IDs are unique because the lane is part of the node identifier of each
+ * factory. They are sorted by time across lanes, but IDs generated in the same
+ * millisecond are ordered by lane first. Each lane can generate
+ * {@code 2^(counterBits - laneBits)} IDs per millisecond.
+ * <p>
+ * Use {@link TsidLayout#parse(long, int)} with the same {@code laneBits} to
+ * decode the IDs.
+ */
+public class StripedTsidGenerator implements IdGenerator {
+
+    private static final int                      DEFAULT_LANE_BITS = 4;
+    private final        int                      worker;
+    private final        int                      process;
+    private final        TsidLayout               layout;
+    private final        int                      laneBits;
+    private final        int                      laneMask;
+    private final        TsidFactory[]            lanes;
+    private final        AtomicInteger            nextLane          = new AtomicInteger();
+    private final        ThreadLocal<TsidFactory> lane;
+
+    /**
+     * Creates a generator with 16 lanes.
+     *
+     * @param worker  0 ~ 31
+     * @param process 0 ~ 31
+     */
+    public StripedTsidGenerator(int worker, int process) {
+        this(worker, process, DEFAULT_LANE_BITS);
+    }
+
+    /**
+     * @param worker   0 ~ 31
+     * @param process  0 ~ 31
+     * @param laneBits 0 ~ 10, the number of counter bits used to identify a lane
+     */
+    public StripedTsidGenerator(int worker, int process, int laneBits) {
+        this(worker, process, laneBits, TsidLayout.DEFAULT);
+    }
+
+    /**
+     * @param worker   0 ~ {@link TsidLayout#maxWorker()}
+     * @param process  0 ~ {@link TsidLayout#maxProcess()}
+     * @param laneBits 0 ~ {@link TsidLayout#maxLaneBits()}, the number of counter bits used to identify a lane
+     * @param layout   the bit layout of the IDs
+     */
+    public StripedTsidGenerator(int worker, int process, int laneBits, TsidLayout layout) {
+        if (laneBits < 0 || laneBits > layout.maxLaneBits()) {
+            throw new IllegalArgumentException(
+                    String.format("Lane bits out of range [0, %s]: %s", layout.maxLaneBits(), laneBits));
+        }
+
+        this.worker = worker;
+        this.process = process;
+        this.layout = layout;
+        this.laneBits = laneBits;
+        this.laneMask = (1 << laneBits) - 1;
+
+        final int node = layout.node(worker, process);
+        this.lanes = new TsidFactory[1 << laneBits];
+        for (int lane = 0; lane < lanes.length; lane++) {
+            lanes[lane] = TsidFactory.builder()
+                    .withRandomFunction(TsidGenerator.RANDOM_FUNCTION)
+                    .withCustomEpoch(TsidGenerator.CUSTOM_EPOCH)
+                    .withNodeBits(layout.nodeBits() + laneBits)
+                    .withNode(node << laneBits | lane)
+                    .withTimeFunction(CoarseClock::millis)
+                    .withLockFree(true)
+                    .build();
+        }
+        this.lane = ThreadLocal.withInitial(() -> lanes[nextLane.getAndIncrement() & laneMask]);
+    }
+
+    /**
+     * @param id 64bit
+     * @return [timestamp, worker, process, lane, sequence]
+     */
+    public long[] parse(long id) {
+        return layout.parse(id, laneBits);
+    }
+
+    /**
+     * @return the number of counter bits used to identify a lane
+     */
+    public int getLaneBits() {
+        return laneBits;
+    }
+
+    /**
+     * @return 64bit id
+     */
+    public long generate() {
+        return lane().createLong();
+    }
+
+    /**
+     * Fills a range of an array with 64bit ids, taking the lock or the
+     * compare-and-set once.
+     *
+     * @param ids    the destination array
+     * @param offset the index of the first id
+     * @param length the amount of ids
+     */
+    public void generate(long[] ids, int offset, int length) {
+        lane().createLongs(ids, offset, length);
+    }
+
+    /**
+     * Reserves a block of 64bit ids from the lane of the current thread.
+     * <p>
+     * The counter of the block is the sequence of the lane.
+     *
+     * @param size the amount of ids, greater than zero
+     * @return the block of ids
+     */
+    public IdBlock reserve(int size) {
+        return new IdBlock(lane().createRange(size), size, layout.counterBits() - laneBits);
+    }
+
+    private TsidFactory lane() {
+        return lane.get();
+    }
+
+}
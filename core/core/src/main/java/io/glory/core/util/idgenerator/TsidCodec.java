@@ -0,0 +1,440 @@
+package io.glory.core.util.idgenerator;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+
+/**
+ * A compact binary codec for sequences of TSIDs.
+ * <p>
+ * Each ID is encoded as the difference to the previous one, zigzag-encoded so
+ * that the small negative differences of nearly sorted sequences stay small.
+ * The differences are grouped in frames of up to {@value #FRAME_SIZE} IDs, and
+ * each frame is written in the smaller of two forms: variable-length integers,
+ * or frame-of-reference bit packing (the minimum of the frame, then every
+ * difference minus the minimum in the same number of bits). IDs generated in
+ * the same millisecond take about one byte each.
+ * <p>
+ * Stream layout:
+ * <pre>
+ * stream  := frame* 0
+ * frame   := count (varint, 1 ~ 128) mode (1 byte) payload
+ * VARINT  := count * zigzag delta (varint)
+ * PACKED  := zigzag delta (varint) reference (varint) width (1 byte) (count - 1) * width bits
+ * </pre>
+ * The sequence is written by an {@link Encoder} and read lazily by a
+ * {@link Decoder}, one whole frame at a time, so it can be streamed through a
+ * buffer smaller than the whole sequence: a frame that does not fit in the
+ * remaining bytes is left untouched, and the call can be repeated once the
+ * buffer is drained or refilled. The buffer must hold at least
+ * {@code maxEncodedLength(128)} bytes, the largest frame.
+ * <pre>{@code
+ * while (decoder.hasNext() || !decoder.isEnded()) {
+ *     if (!decoder.hasNext()) {
+ *         buffer.compact();
+ *         channel.read(buffer);
+ *         buffer.flip();
+ *     } else {
+ *         consume(decoder.nextLong());
+ *     }
+ * }
+ * }</pre>
+ */
+public final class TsidCodec {
+
+    static final         int  FRAME_SIZE = 128;
+    private static final byte VARINT     = 0;
+    private static final byte PACKED     = 1;
+
+    private TsidCodec() {
+    }
+
+    /**
+     * Returns the maximum number of bytes of an encoded sequence.
+     *
+     * @param length the amount of ids
+     * @return a number of bytes
+     */
+    public static int maxEncodedLength(int length) {
+        final int frames = (length + FRAME_SIZE - 1) / FRAME_SIZE;
+        return Math.multiplyExact(length, 10) + frames * 13 + 1;
+    }
+
+    /**
+     * Encodes a range of IDs.
+     *
+     * @param ids    the source array
+     * @param offset the index of the first id
+     * @param length the amount of ids
+     * @param buffer the destination, see {@link #maxEncodedLength(int)}
+     * @return the buffer
+     * @throws IndexOutOfBoundsException if the range is out of the array bounds
+     * @throws BufferOverflowException   if the buffer is too small
+     */
+    public static ByteBuffer encode(long[] ids, int offset, int length, ByteBuffer buffer) {
+        Objects.checkFromIndexSize(offset, length, ids.length);
+        final Encoder encoder = new Encoder(buffer);
+        for (int i = offset; i < offset + length; i++) {
+            encoder.write(ids[i]);
+        }
+        encoder.close();
+        return buffer;
+    }
+
+    /**
+     * Decodes a sequence of IDs.
+     *
+     * @param buffer the source, positioned at the start of the sequence
+     * @return the ids
+     * @throws IllegalArgumentException if the sequence is malformed or truncated
+     */
+    public static long[] decode(ByteBuffer buffer) {
+        final Decoder decoder = new Decoder(buffer);
+        long[] ids = new long[FRAME_SIZE];
+        int length = 0;
+        int read;
+        while ((read = decoder.read(ids, length, ids.length - length)) > 0) {
+            length += read;
+            if (length == ids.length) {
+                ids = Arrays.copyOf(ids, length * 2);
+            }
+        }
+        if (!decoder.isEnded()) {
+            throw new IllegalArgumentException(String.format("Truncated sequence after %s ids", length));
+        }
+        return Arrays.copyOf(ids, length);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int varintLength(long value) {
+        return value == 0 ? 1 : (63 - Long.numberOfLeadingZeros(value)) / 7 + 1;
+    }
+
+    private static void putVarint(ByteBuffer buffer, long value) {
+        while ((value & ~0x7fL) != 0) {
+            buffer.put((byte)(value | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte)value);
+    }
+
+    private static long getVarint(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            final byte b = buffer.get();
+            value |= (long)(b & 0x7f) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Invalid varint: more than 10 bytes");
+    }
+
+    /**
+     * Writes IDs to a buffer, one frame at a time.
+     * <p>
+     * The IDs are buffered until a frame is full, and the frame is written by the
+     * next {@link #write(long)}. {@link #close()} writes the last frame and the end
+     * of the sequence. A frame is written whole or not at all: when it does not
+     * fit, {@link BufferOverflowException} is thrown with the encoder and the
+     * buffer unchanged, and the call can be repeated once the buffer is drained.
+     */
+    public static final class Encoder implements AutoCloseable {
+
+        private final ByteBuffer buffer;
+        private final long[]     deltas = new long[FRAME_SIZE];
+        private       int        count;
+        private       long       previous;
+        private       long       bits;
+        private       int        bitCount;
+        private       boolean    closed;
+
+        /**
+         * @param buffer the destination
+         */
+        public Encoder(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        /**
+         * Writes an ID.
+         *
+         * @param id 64bit
+         * @throws IllegalStateException   if the encoder is closed
+         * @throws BufferOverflowException if the buffer is too small for the
+         *                                 previous frame, the id is not written
+         */
+        public void write(long id) {
+            if (closed) {
+                throw new IllegalStateException("Encoder is closed");
+            }
+            if (count == FRAME_SIZE) {
+                writeFrame(0);
+            }
+            deltas[count++] = zigzag(id - previous);
+            previous = id;
+        }
+
+        /**
+         * Writes the buffered IDs and the end of the sequence.
+         *
+         * @throws BufferOverflowException if the buffer is too small, nothing is
+         *                                 written
+         */
+        @Override
+        public void close() {
+            if (!closed) {
+                writeFrame(1);
+                buffer.put((byte)0);
+                closed = true;
+            }
+        }
+
+        /**
+         * @param reserved the bytes that must remain after the frame
+         */
+        private void writeFrame(int reserved) {
+            if (count == 0) {
+                if (buffer.remaining() < reserved) {
+                    throw new BufferOverflowException();
+                }
+                return;
+            }
+
+            long reference = -1L;
+            long max = 0L;
+            int varintBytes = varintLength(deltas[0]);
+            for (int i = 1; i < count; i++) {
+                varintBytes += varintLength(deltas[i]);
+                if (Long.compareUnsigned(deltas[i], reference) < 0) {
+                    reference = deltas[i];
+                }
+                if (Long.compareUnsigned(deltas[i], max) > 0) {
+                    max = deltas[i];
+                }
+            }
+            if (count == 1) {
+                reference = 0L;
+            }
+            final int width = Long.SIZE - Long.numberOfLeadingZeros(max - reference);
+            final long packedBytes = varintLength(deltas[0]) + varintLength(reference) + 1
+                    + ((long)(count - 1) * width + 7) / 8;
+            final long frameBytes = varintLength(count) + 1 + Math.min(packedBytes, varintBytes);
+            if (buffer.remaining() < frameBytes + reserved) {
+                throw new BufferOverflowException();
+            }
+
+            putVarint(buffer, count);
+            if (packedBytes < varintBytes) {
+                buffer.put(PACKED);
+                putVarint(buffer, deltas[0]);
+                putVarint(buffer, reference);
+                buffer.put((byte)width);
+                for (int i = 1; i < count; i++) {
+                    putBits(deltas[i] - reference, width);
+                }
+                if (bitCount > 0) {
+                    buffer.put((byte)bits);
+                    bits = 0;
+                    bitCount = 0;
+                }
+            } else {
+                buffer.put(VARINT);
+                for (int i = 0; i < count; i++) {
+                    putVarint(buffer, deltas[i]);
+                }
+            }
+            count = 0;
+        }
+
+        private void putBits(long value, int width) {
+            if (width > Integer.SIZE) {
+                putBits32(value & 0xffffffffL, Integer.SIZE);
+                putBits32(value >>> Integer.SIZE, width - Integer.SIZE);
+            } else {
+                putBits32(value, width);
+            }
+        }
+
+        private void putBits32(long value, int width) {
+            bits |= (value & ((1L << width) - 1)) << bitCount;
+            bitCount += width;
+            while (bitCount >= Byte.SIZE) {
+                buffer.put((byte)bits);
+                bits >>>= Byte.SIZE;
+                bitCount -= Byte.SIZE;
+            }
+        }
+
+    }
+
+    /**
+     * Reads IDs from a buffer, one frame at a time.
+     * <p>
+     * A frame is read whole or not at all: when the buffer ends in the middle of
+     * a frame, {@link #hasNext()} returns false, the buffer is left positioned at
+     * the start of the frame, and {@link #isEnded()} tells it apart from the end
+     * of the sequence. The decoding resumes once the buffer is refilled. The
+     * buffer is left positioned after the end of the sequence once all the IDs are
+     * read.
+     */
+    public static final class Decoder implements PrimitiveIterator.OfLong {
+
+        private final ByteBuffer buffer;
+        private final long[]     ids = new long[FRAME_SIZE];
+        private       int        count;
+        private       int        index;
+        private       long       previous;
+        private       long       bits;
+        private       int        bitCount;
+        private       boolean    ended;
+
+        /**
+         * @param buffer the source, positioned at the start of the sequence
+         */
+        public Decoder(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        /**
+         * @return true if there is another id in the buffer
+         * @throws IllegalArgumentException if the sequence is malformed
+         */
+        @Override
+        public boolean hasNext() {
+            if (index < count) {
+                return true;
+            }
+            if (!ended) {
+                readFrame();
+            }
+            return index < count;
+        }
+
+        /**
+         * @return the next id
+         * @throws NoSuchElementException   if there is no other id in the buffer
+         * @throws IllegalArgumentException if the sequence is malformed
+         */
+        @Override
+        public long nextLong() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return ids[index++];
+        }
+
+        /**
+         * Reads the next IDs into an array.
+         *
+         * @param ids    the destination array
+         * @param offset the index of the first id
+         * @param length the maximum amount of ids
+         * @return the amount of ids read, less than {@code length} only at the
+         * end of the sequence or of the buffer
+         * @throws IndexOutOfBoundsException if the range is out of the array bounds
+         * @throws IllegalArgumentException  if the sequence is malformed
+         */
+        public int read(long[] ids, int offset, int length) {
+            Objects.checkFromIndexSize(offset, length, ids.length);
+            int read = 0;
+            while (read < length && hasNext()) {
+                final int n = Math.min(length - read, count - index);
+                System.arraycopy(this.ids, index, ids, offset + read, n);
+                index += n;
+                read += n;
+            }
+            return read;
+        }
+
+        /**
+         * @return true if the end of the sequence has been read
+         */
+        public boolean isEnded() {
+            return ended;
+        }
+
+        private void readFrame() {
+            final int start = buffer.position();
+            final long startPrevious = previous;
+            try {
+                decodeFrame();
+            } catch (BufferUnderflowException e) {
+                // partial frame: wait for the rest
+                buffer.position(start);
+                previous = startPrevious;
+                count = 0;
+                bits = 0;
+                bitCount = 0;
+            }
+        }
+
+        private void decodeFrame() {
+            index = 0;
+            count = (int)getVarint(buffer);
+            if (count == 0) {
+                ended = true;
+                return;
+            }
+            if (count < 0 || count > FRAME_SIZE) {
+                throw new IllegalArgumentException(String.format("Frame size out of range [0, %s]: %s", FRAME_SIZE, count));
+            }
+
+            final byte mode = buffer.get();
+            if (mode == VARINT) {
+                for (int i = 0; i < count; i++) {
+                    previous += unzigzag(getVarint(buffer));
+                    ids[i] = previous;
+                }
+            } else if (mode == PACKED) {
+                previous += unzigzag(getVarint(buffer));
+                ids[0] = previous;
+                final long reference = getVarint(buffer);
+                final int width = buffer.get();
+                if (width < 0 || width > Long.SIZE) {
+                    throw new IllegalArgumentException(String.format("Bit width out of range [0, 64]: %s", width));
+                }
+                for (int i = 1; i < count; i++) {
+                    previous += unzigzag(getBits(width) + reference);
+                    ids[i] = previous;
+                }
+                bits = 0;
+                bitCount = 0;
+            } else {
+                throw new IllegalArgumentException(String.format("Invalid frame mode: %s", mode));
+            }
+        }
+
+        private long getBits(int width) {
+            if (width > Integer.SIZE) {
+                final long low = getBits32(Integer.SIZE);
+                return low | getBits32(width - Integer.SIZE) << Integer.SIZE;
+            }
+            return getBits32(width);
+        }
+
+        private long getBits32(int width) {
+            while (bitCount < width) {
+                bits |= (buffer.get() & 0xffL) << bitCount;
+                bitCount += Byte.SIZE;
+            }
+            final long value = bits & ((1L << width) - 1);
+            bits >>>= width;
+            bitCount -= width;
+            return value;
+        }
+
+    }
+
+}
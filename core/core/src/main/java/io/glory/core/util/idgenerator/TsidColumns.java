@@ -0,0 +1,79 @@
+package io.glory.core.util.idgenerator;
+
+/**
+ * The fields of a batch of TSIDs, one array per field.
+ * <p>
+ * Filled by {@link TsidLayout#parse(long[], int, int, TsidColumns)}: the fields
+ * of the i-th ID are at index i of the arrays, so one field can be scanned
+ * without reading the others. Only the first {@link #size()} entries are valid,
+ * and the same columns can be filled again with the next batch.
+ */
+public final class TsidColumns {
+
+    private final long[] timestamps;
+    private final int[]  workers;
+    private final int[]  processes;
+    private final int[]  sequences;
+    private       int    size;
+
+    /**
+     * @param capacity the maximum amount of ids
+     * @throws IllegalArgumentException if the capacity is negative
+     */
+    public TsidColumns(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException(String.format("Capacity must not be negative: %s", capacity));
+        }
+        this.timestamps = new long[capacity];
+        this.workers = new int[capacity];
+        this.processes = new int[capacity];
+        this.sequences = new int[capacity];
+    }
+
+    /**
+     * @return the maximum amount of ids
+     */
+    public int capacity() {
+        return timestamps.length;
+    }
+
+    /**
+     * @return the amount of parsed ids
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the unix times in milliseconds
+     */
+    public long[] timestamps() {
+        return timestamps;
+    }
+
+    /**
+     * @return the worker identifiers
+     */
+    public int[] workers() {
+        return workers;
+    }
+
+    /**
+     * @return the process identifiers
+     */
+    public int[] processes() {
+        return processes;
+    }
+
+    /**
+     * @return the counters
+     */
+    public int[] sequences() {
+        return sequences;
+    }
+
+    void setSize(int size) {
+        this.size = size;
+    }
+
+}
@@ -1,68 +1,188 @@
 package io.glory.core.util.idgenerator;
 
+import java.nio.file.Path;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.function.IntFunction;
 
+import io.glory.core.util.datetime.CoarseClock;
 import io.glory.core.util.idgenerator.tsid.TsidFactory;
 
 public class TsidGenerator implements IdGenerator {
 
-    private static final int                 NODE_BITS       = 10;
-    private static final Instant             CUSTOM_EPOCH    = Instant.parse("2015-01-01T00:00:00.000Z");
-    private static final IntFunction<byte[]> RANDOM_FUNCTION = byte[]::new;
-    private final        int                 worker;  // max: 2^5-1 = 31
-    private final        int                 process; // max: 2^5-1 = 31
-    private final        int                 node; // max: 2^10-1
+    static final         Instant             CUSTOM_EPOCH    = Instant.parse("2015-01-01T00:00:00.000Z");
+    static final         IntFunction<byte[]> RANDOM_FUNCTION = byte[]::new;
+    private final        int                 worker;
+    private final        int                 process;
+    private final        int                 node;
+    private final        TsidLayout          layout;
     private final        TsidFactory         factory;
 
     /**
+     * Creates a generator with the {@link TsidLayout#DEFAULT default} layout.
+     *
      * @param worker  0 ~ 31
      * @param process 0 ~ 31
      */
     public TsidGenerator(int worker, int process) {
+        this(worker, process, TsidLayout.DEFAULT);
+    }
+
+    /**
+     * @param worker  0 ~ {@link TsidLayout#maxWorker()}
+     * @param process 0 ~ {@link TsidLayout#maxProcess()}
+     * @param layout  the bit layout of the IDs
+     */
+    public TsidGenerator(int worker, int process, TsidLayout layout) {
+        this(worker, process, layout, null);
+    }
+
+    /**
+     * Creates a generator whose state is shared with the generators of other
+     * processes on the same host, so that they generate unique IDs with the same
+     * worker and process.
+     *
+     * @param worker      0 ~ {@link TsidLayout#maxWorker()}
+     * @param process     0 ~ {@link TsidLayout#maxProcess()}
+     * @param layout      the bit layout of the IDs
+     * @param sharedState the state file, or null if not shared
+     * @see TsidFactory.Builder#withSharedState(Path)
+     */
+    public TsidGenerator(int worker, int process, TsidLayout layout, Path sharedState) {
         this.worker = worker;
         this.process = process;
-        this.node = (worker << 5 | process);
+        this.layout = layout;
+        this.node = layout.node(worker, process);
 
         this.factory = TsidFactory.builder()
                 .withRandomFunction(RANDOM_FUNCTION)
                 .withCustomEpoch(CUSTOM_EPOCH)
-                .withNodeBits(NODE_BITS)
+                .withNodeBits(layout.nodeBits())
                 .withNode(node)
+                .withTimeFunction(CoarseClock::millis)
+                .withLockFree(true)
+                .withSharedState(sharedState)
                 .build();
     }
 
     /**
+     * Parses an ID of the {@link TsidLayout#DEFAULT default} layout. Use
+     * {@link TsidLayout#parse(long)} for other layouts.
+     *
      * @param id 64bit
      * @return [timestamp, worker, process, sequence]
      */
     public static long[] parse(long id) {
-        final long[] array = new long[4];
-        array[0] = (id >>> 22) + CUSTOM_EPOCH.toEpochMilli();
-        array[1] = (id & 0x3E0000) >> 17;
-        array[2] = (id & 0x1F000) >> 12;
-        array[3] = (id & 0xFFF);
-        return array;
+        return TsidLayout.DEFAULT.parse(id);
+    }
+
+    /**
+     * Parses an ID of the {@link TsidLayout#DEFAULT default} layout whose counter is
+     * split into lanes, like the IDs of {@link StripedTsidGenerator}.
+     *
+     * @param id       64bit
+     * @param laneBits 0 ~ 10, the number of counter bits used to identify a lane
+     * @return [timestamp, worker, process, lane, sequence]
+     */
+    public static long[] parse(long id, int laneBits) {
+        return TsidLayout.DEFAULT.parse(id, laneBits);
+    }
+
+    /**
+     * Parses IDs of the {@link TsidLayout#DEFAULT default} layout into columns.
+     *
+     * @param ids 64bit ids
+     * @return the fields of the ids
+     * @see TsidLayout#parse(long[], int, int, TsidColumns)
+     */
+    public static TsidColumns parse(long[] ids) {
+        return TsidLayout.DEFAULT.parse(ids);
     }
 
     /**
+     * @param id 64bit
+     * @return the unix time in milliseconds
+     */
+    public static long timestampOf(long id) {
+        return TsidLayout.timestamp(id);
+    }
+
+    /**
+     * @param id 64bit, of the {@link TsidLayout#DEFAULT default} layout
+     * @return the worker identifier, 0 ~ 31
+     */
+    public static int workerOf(long id) {
+        return TsidLayout.DEFAULT.workerOf(id);
+    }
+
+    /**
+     * @param id 64bit, of the {@link TsidLayout#DEFAULT default} layout
+     * @return the process identifier, 0 ~ 31
+     */
+    public static int processOf(long id) {
+        return TsidLayout.DEFAULT.processOf(id);
+    }
+
+    /**
+     * @param id 64bit, of the {@link TsidLayout#DEFAULT default} layout
+     * @return the counter, 0 ~ 4095
+     */
+    public static int sequenceOf(long id) {
+        return TsidLayout.DEFAULT.sequenceOf(id);
+    }
+
+    /**
+     * Returns the time of an ID in the system default zone. Use
+     * {@link #timestampOf(long)} to read the time without allocating.
+     *
      * @param id 64bit
      * @return LocalDateTime
      */
     public static LocalDateTime generatedAt(long id) {
-        long timestamp = (id >>> 22) + CUSTOM_EPOCH.toEpochMilli();
-        return LocalDateTime.ofInstant(
-                Instant.ofEpochMilli(timestamp),
-                java.time.ZoneId.systemDefault()
-        );
+        return TsidLayout.generatedAt(id);
+    }
+
+    /**
+     * @return the bit layout of the IDs
+     */
+    public TsidLayout getLayout() {
+        return layout;
     }
 
     /**
      * @return 64bit id
      */
     public long generate() {
-        return factory.create().toLong();
+        return factory.createLong();
+    }
+
+    /**
+     * Fills a range of an array with 64bit ids, taking the lock or the
+     * compare-and-set once.
+     *
+     * @param ids    the destination array
+     * @param offset the index of the first id
+     * @param length the amount of ids
+     */
+    public void generate(long[] ids, int offset, int length) {
+        factory.createLongs(ids, offset, length);
+    }
+
+    /**
+     * Reserves a block of 64bit ids, taking the compare-and-set once.
+     *
+     * @param size the amount of ids, greater than zero
+     * @return the block of ids
+     */
+    public IdBlock reserve(int size) {
+        return new IdBlock(factory.createRange(size), size, layout.counterBits());
+    }
+
+    /**
+     * @return the clock drift metrics of the underlying factory
+     */
+    public TsidFactory.Metrics getMetrics() {
+        return factory.getMetrics();
     }
 
 }
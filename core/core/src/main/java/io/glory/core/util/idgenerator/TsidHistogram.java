@@ -0,0 +1,173 @@
+package io.glory.core.util.idgenerator;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.LongConsumer;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Counts TSIDs per time bucket or per node, without keeping the IDs.
+ * <p>
+ * Each ID is mapped to a key read from its bits: the start of its time bucket
+ * in unix milliseconds, or its node identifier. The counts are kept in a
+ * {@link TsidLongLongMap}, so counting allocates nothing once the buckets
+ * exist, and consecutive IDs with the same key, as in a time-ordered stream,
+ * are counted without a lookup.
+ * <p>
+ * It is a {@link LongConsumer}, so it can count a stream:
+ * <pre>{@code
+ * TsidHistogram histogram = ids.collect(TsidHistogram::perSecond, TsidHistogram::accept, TsidHistogram::merge);
+ * }</pre>
+ * This class is not thread-safe.
+ */
+public final class TsidHistogram implements LongConsumer {
+
+    private final LongUnaryOperator classifier;
+    private final TsidLongLongMap   counts = new TsidLongLongMap();
+    private       long              lastKey;
+    private       long              lastCount;
+    private       long              total;
+
+    private TsidHistogram(LongUnaryOperator classifier) {
+        this.classifier = classifier;
+    }
+
+    /**
+     * @return a histogram of IDs per second, keyed by the start of the second in unix milliseconds
+     */
+    public static TsidHistogram perSecond() {
+        return perTime(Duration.ofSeconds(1));
+    }
+
+    /**
+     * Returns a histogram of IDs per time bucket, keyed by the start of the
+     * bucket in unix milliseconds. Buckets are aligned on the unix epoch.
+     *
+     * @param bucket the duration of a bucket, at least 1 millisecond
+     * @return {@link TsidHistogram}
+     * @throws IllegalArgumentException if the bucket is shorter than 1 millisecond
+     */
+    public static TsidHistogram perTime(Duration bucket) {
+        final long millis = bucket.toMillis();
+        if (millis < 1) {
+            throw new IllegalArgumentException(String.format("Bucket must be at least 1ms: %s", bucket));
+        }
+        return new TsidHistogram(id -> {
+            final long timestamp = TsidLayout.timestamp(id);
+            return timestamp - Math.floorMod(timestamp, millis);
+        });
+    }
+
+    /**
+     * Returns a histogram of IDs per node, keyed by the node identifier.
+     *
+     * @param layout the bit layout of the IDs
+     * @return {@link TsidHistogram}
+     * @see TsidLayout#worker(int)
+     * @see TsidLayout#process(int)
+     */
+    public static TsidHistogram perNode(TsidLayout layout) {
+        return new TsidHistogram(layout::nodeOf);
+    }
+
+    /**
+     * Counts an ID.
+     *
+     * @param id 64bit
+     */
+    @Override
+    public void accept(long id) {
+        final long key = classifier.applyAsLong(id);
+        if (key != lastKey) {
+            flush();
+            lastKey = key;
+        }
+        lastCount++;
+        total++;
+    }
+
+    /**
+     * Counts a range of IDs.
+     *
+     * @param ids    the source array
+     * @param offset the index of the first id
+     * @param length the amount of ids
+     * @throws IndexOutOfBoundsException if the range is out of the array bounds
+     */
+    public void addAll(long[] ids, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, ids.length);
+        for (int i = offset; i < offset + length; i++) {
+            accept(ids[i]);
+        }
+    }
+
+    /**
+     * Adds the counts of another histogram with the same kind of keys.
+     *
+     * @param other a histogram created by the same factory method
+     * @return this histogram
+     */
+    public TsidHistogram merge(TsidHistogram other) {
+        other.flush();
+        flush();
+        other.counts.forEach(counts::addTo);
+        total += other.total;
+        return this;
+    }
+
+    /**
+     * @param key a time bucket or a node identifier
+     * @return the number of IDs of the key
+     */
+    public long count(long key) {
+        flush();
+        return counts.getOrDefault(key, 0L);
+    }
+
+    /**
+     * @return the number of IDs counted
+     */
+    public long total() {
+        return total;
+    }
+
+    /**
+     * @return the number of keys with at least one ID
+     */
+    public int size() {
+        flush();
+        return counts.size();
+    }
+
+    /**
+     * @return the keys with at least one ID, in ascending order
+     */
+    public long[] keys() {
+        flush();
+        final long[] keys = new long[counts.size()];
+        final int[] index = {0};
+        counts.forEach((key, count) -> keys[index[0]++] = key);
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    /**
+     * Calls an action with every key and its count, in ascending order of keys.
+     *
+     * @param action the action
+     */
+    public void forEach(TsidLongLongMap.EntryConsumer action) {
+        for (long key : keys()) {
+            action.accept(key, counts.getOrDefault(key, 0L));
+        }
+    }
+
+    private void flush() {
+        if (lastCount > 0) {
+            counts.addTo(lastKey, lastCount);
+            lastCount = 0;
+        }
+    }
+
+}
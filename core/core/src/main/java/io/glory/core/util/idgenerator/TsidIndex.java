@@ -0,0 +1,442 @@
+package io.glory.core.util.idgenerator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A persistent, append-only index of sorted TSIDs.
+ * <p>
+ * The IDs are stored in segment files of a directory, each one memory-mapped
+ * and holding up to {@code segmentCapacity} IDs. IDs must be appended in
+ * ascending order, so that the IDs generated between two instants are found by
+ * binary search on the mapped buffers, without loading them on the heap.
+ * <p>
+ * Segment layout:
+ * <pre>
+ * | size (8 bytes) | id 0 (8 bytes) | id 1 (8 bytes) | ... | id capacity-1 (8 bytes) |
+ * </pre>
+ * <p>
+ * There is a single writer: {@link #append(long)} is serialized, while range
+ * queries run concurrently and see the IDs appended before they started. The
+ * size of a segment is written after its IDs, so it never covers an unwritten
+ * ID. IDs appended after the last {@link #flush()} may be lost if the machine
+ * crashes. The directory is locked by an exclusive lock on its
+ * {@code index.lock} file while the index is open, so a second index on the
+ * same directory, in this process or another one, fails to open.
+ * <p>
+ * The time bounds use the epoch of {@link TsidGenerator}, see
+ * {@link TsidLayout#minId(long)}.
+ * <p>
+ * Once the index is closed, its methods fail, but the streams returned before
+ * {@link #close()} stay readable. The mapped buffers are released by the
+ * garbage collector.
+ */
+public class TsidIndex implements AutoCloseable {
+
+    static final         int       MAX_SEGMENT_CAPACITY = 1 << 27;
+    private static final String    SUFFIX               = ".tsid";
+    private static final String    LOCK_FILE            = "index.lock";
+    private static final int       HEADER_BYTES         = Long.BYTES;
+    private final        Path      directory;
+    private final        int       segmentCapacity;
+    private final        FileLock  lock;
+    private volatile     Segment[] segments;
+    private volatile     boolean   closed;
+
+    private TsidIndex(Builder builder) throws IOException {
+        this.directory = builder.directory;
+        this.segmentCapacity = builder.getSegmentCapacity();
+
+        Files.createDirectories(directory);
+        this.lock = lock(directory.resolve(LOCK_FILE));
+        try (Stream<Path> files = Files.list(directory)) {
+            final Path[] paths = files.filter(path -> path.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .toArray(Path[]::new);
+            final Segment[] opened = new Segment[paths.length];
+            for (int i = 0; i < paths.length; i++) {
+                opened[i] = Segment.open(paths[i], segmentCapacity);
+            }
+            this.segments = opened;
+        } catch (IOException | RuntimeException e) {
+            lock.channel().close();
+            throw e;
+        }
+    }
+
+    private static FileLock lock(Path path) throws IOException {
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            final FileLock lock = channel.tryLock();
+            if (lock == null) {
+                throw new IllegalStateException(String.format("Index locked by another process: %s", path));
+            }
+            return lock;
+        } catch (OverlappingFileLockException e) {
+            channel.close();
+            throw new IllegalStateException(String.format("Index already open in this process: %s", path), e);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a builder for an index stored in a directory.
+     *
+     * @param directory the directory of the segment files, created if missing
+     * @return {@link Builder}
+     */
+    public static Builder builder(Path directory) {
+        return new Builder(directory);
+    }
+
+    /**
+     * Appends an ID.
+     *
+     * @param id 64bit, greater than the last appended id
+     * @throws IllegalArgumentException if the id is not greater than the last one
+     * @throws IllegalStateException    if the index is closed
+     * @throws UncheckedIOException     if a new segment cannot be created
+     */
+    public synchronized void append(long id) {
+        ensureOpen();
+
+        final Segment last = lastSegment();
+        if (last != null && last.size > 0 && id <= last.get(last.size - 1)) {
+            throw new IllegalArgumentException(
+                    String.format("Id out of order: %s <= %s", id, last.get(last.size - 1)));
+        }
+        writableSegment(last).append(id);
+    }
+
+    /**
+     * Appends a range of IDs.
+     *
+     * @param ids    the source array, in ascending order
+     * @param offset the index of the first id
+     * @param length the amount of ids
+     * @throws IllegalArgumentException  if the ids are not in ascending order,
+     *                                   in which case none is appended
+     * @throws IndexOutOfBoundsException if the range is out of the array bounds
+     * @throws IllegalStateException     if the index is closed
+     * @throws UncheckedIOException      if a new segment cannot be created
+     */
+    public synchronized void append(long[] ids, int offset, int length) {
+        ensureOpen();
+        Objects.checkFromIndexSize(offset, length, ids.length);
+        for (int i = offset + 1; i < offset + length; i++) {
+            if (ids[i] <= ids[i - 1]) {
+                throw new IllegalArgumentException(String.format("Id out of order: %s <= %s", ids[i], ids[i - 1]));
+            }
+        }
+        for (int i = offset; i < offset + length; i++) {
+            append(ids[i]);
+        }
+    }
+
+    /**
+     * @return the number of IDs in the index
+     * @throws IllegalStateException if the index is closed
+     */
+    public long size() {
+        ensureOpen();
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    /**
+     * Returns the number of IDs generated between two instants.
+     *
+     * @param from the first instant, inclusive
+     * @param to   the last instant, inclusive
+     * @return the number of IDs
+     * @throws IllegalStateException if the index is closed
+     */
+    public long count(Instant from, Instant to) {
+        ensureOpen();
+        final long min = TsidLayout.minId(from.toEpochMilli());
+        final long max = TsidLayout.maxId(to.toEpochMilli());
+        long count = 0;
+        for (Segment segment : segments) {
+            final int size = segment.size;
+            if (size > 0 && segment.get(0) <= max && segment.get(size - 1) >= min) {
+                count += segment.upperBound(max, size) - segment.lowerBound(min, size);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the IDs generated between two instants, in ascending order.
+     * <p>
+     * The IDs are read lazily from the mapped segments.
+     *
+     * @param from the first instant, inclusive
+     * @param to   the last instant, inclusive
+     * @return the IDs
+     * @throws IllegalStateException if the index is closed
+     */
+    public LongStream between(Instant from, Instant to) {
+        ensureOpen();
+        final long min = TsidLayout.minId(from.toEpochMilli());
+        final long max = TsidLayout.maxId(to.toEpochMilli());
+        return Arrays.stream(segments)
+                .filter(segment -> segment.size > 0)
+                .flatMapToLong(segment -> segment.range(min, max));
+    }
+
+    /**
+     * Calls an action with every ID generated between two instants, in ascending
+     * order.
+     *
+     * @param from   the first instant, inclusive
+     * @param to     the last instant, inclusive
+     * @param action the action
+     * @throws IllegalStateException if the index is closed
+     */
+    public void forEach(Instant from, Instant to, LongConsumer action) {
+        between(from, to).forEach(action);
+    }
+
+    /**
+     * Writes the mapped segments to the storage device.
+     *
+     * @throws IllegalStateException if the index is closed
+     */
+    public synchronized void flush() {
+        ensureOpen();
+        for (Segment segment : segments) {
+            segment.buffer.force();
+        }
+    }
+
+    /**
+     * Flushes and closes the index, releasing the lock of the directory.
+     *
+     * @throws UncheckedIOException if the lock cannot be released
+     */
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            flush();
+            closed = true;
+            try {
+                lock.channel().close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Index is closed");
+        }
+    }
+
+    private Segment lastSegment() {
+        final Segment[] current = this.segments;
+        return current.length == 0 ? null : current[current.length - 1];
+    }
+
+    private Segment writableSegment(Segment last) {
+        if (last != null && last.size < segmentCapacity) {
+            return last;
+        }
+        final Segment[] current = this.segments;
+        final Path path = directory.resolve(String.format("%010d%s", current.length, SUFFIX));
+        try {
+            final Segment segment = Segment.open(path, segmentCapacity);
+            final Segment[] next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = segment;
+            this.segments = next;
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A memory-mapped segment file.
+     */
+    private static class Segment {
+
+        private final    MappedByteBuffer buffer;
+        private final    LongBuffer       ids;
+        private volatile int              size;
+
+        private Segment(MappedByteBuffer buffer, int size) {
+            this.buffer = buffer;
+            this.ids = buffer.slice(HEADER_BYTES, buffer.capacity() - HEADER_BYTES).asLongBuffer();
+            this.size = size;
+        }
+
+        static Segment open(Path path, int capacity) throws IOException {
+            try (FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                final long bytes = HEADER_BYTES + (long)capacity * Long.BYTES;
+                if (channel.size() > bytes) {
+                    throw new IOException(String.format("Segment larger than the capacity %s: %s", capacity, path));
+                }
+                final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+                final long size = buffer.getLong(0);
+                if (size < 0 || size > capacity) {
+                    throw new IOException(String.format("Corrupted segment size %s: %s", size, path));
+                }
+                return new Segment(buffer, (int)size);
+            }
+        }
+
+        long get(int index) {
+            return ids.get(index);
+        }
+
+        void append(long id) {
+            final int index = this.size;
+            ids.put(index, id);
+            buffer.putLong(0, index + 1);
+            this.size = index + 1;
+        }
+
+        LongStream range(long min, long max) {
+            final int size = this.size;
+            final int from = lowerBound(min, size);
+            final int to = upperBound(max, size);
+            if (from >= to) {
+                return LongStream.empty();
+            }
+            final Spliterator.OfLong spliterator = Spliterators.spliterator(new PrimitiveIterator.OfLong() {
+                private int index = from;
+
+                @Override
+                public boolean hasNext() {
+                    return index < to;
+                }
+
+                @Override
+                public long nextLong() {
+                    return ids.get(index++);
+                }
+            }, to - from, Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL);
+            return StreamSupport.longStream(spliterator, false);
+        }
+
+        /**
+         * @return the index of the first id greater than or equal to the key
+         */
+        int lowerBound(long key, int size) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (ids.get(mid) < key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * @return the index of the first id greater than the key
+         */
+        int upperBound(long key, int size) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (ids.get(mid) <= key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+    }
+
+    /**
+     * A nested class that builds a {@link TsidIndex}.
+     */
+    public static class Builder {
+
+        private final Path    directory;
+        private       Integer segmentCapacity;
+
+        private Builder(Path directory) {
+            if (directory == null) {
+                throw new IllegalArgumentException("Directory must not be null");
+            }
+            this.directory = directory;
+        }
+
+        /**
+         * Set the number of IDs of a segment file. Default: 2^22 (32MB files).
+         * <p>
+         * It must be the same every time the directory is opened. A segment is
+         * mapped in a single buffer, so its file must be smaller than 2GB.
+         *
+         * @param segmentCapacity a number between 1 and 2^27 (1GB files)
+         * @return {@link Builder}
+         */
+        public Builder withSegmentCapacity(Integer segmentCapacity) {
+            this.segmentCapacity = segmentCapacity;
+            return this;
+        }
+
+        /**
+         * Opens the index, mapping the existing segment files.
+         *
+         * @return {@link TsidIndex}
+         * @throws IllegalArgumentException if an option is out of range
+         * @throws IllegalStateException    if the directory is locked by another
+         *                                  index
+         * @throws UncheckedIOException     if the directory or a segment cannot be
+         *                                  opened
+         */
+        public TsidIndex build() {
+            try {
+                return new TsidIndex(this);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        int getSegmentCapacity() {
+            if (this.segmentCapacity == null) {
+                this.segmentCapacity = 1 << 22;
+            }
+            if (segmentCapacity < 1 || segmentCapacity > MAX_SEGMENT_CAPACITY) {
+                throw new IllegalArgumentException(
+                        String.format("Segment capacity out of range [1, 2^27]: %s", segmentCapacity));
+            }
+            return this.segmentCapacity;
+        }
+
+    }
+
+}
@@ -0,0 +1,281 @@
+package io.glory.core.util.idgenerator;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Objects;
+
+/**
+ * The bit layout of the 22 random bits of a TSID generated by {@link TsidGenerator}.
+ * <p>
+ * Layout (64 bits):
+ * <pre>
+ * | time (42) | worker (workerBits) | process (processBits) | counter (counterBits) |
+ * </pre>
+ * <p>
+ * The widths must add up to 22 bits. A layout with fewer node bits can generate
+ * more IDs per millisecond: {@code 2^counterBits}. For example, 3 worker bits,
+ * 0 process bits and 19 counter bits are enough for 8 nodes generating 524,288
+ * IDs/ms each.
+ * <p>
+ * The time is always in the 42 high bits, so {@link #generatedAt(long)} does not
+ * depend on the layout.
+ *
+ * @param workerBits  the number of bits of the worker identifier
+ * @param processBits the number of bits of the process identifier
+ * @param counterBits the number of bits of the counter, at least 2
+ */
+public record TsidLayout(int workerBits, int processBits, int counterBits) {
+
+    /**
+     * The number of bits shared by the node identifier and the counter.
+     */
+    public static final int        RANDOM_BITS      = 22;
+    static final        int        MIN_COUNTER_BITS = 2;
+    /**
+     * 5 worker bits, 5 process bits and 12 counter bits: 1024 nodes and 4096 ID/ms.
+     */
+    public static final TsidLayout DEFAULT          = new TsidLayout(5, 5, 12);
+
+    /**
+     * @throws IllegalArgumentException if a width is negative, if the counter has
+     *                                  less than 2 bits, or if the widths do not
+     *                                  add up to 22 bits
+     */
+    public TsidLayout {
+        if (workerBits < 0 || processBits < 0) {
+            throw new IllegalArgumentException(
+                    String.format("Worker and process bits must not be negative: %s, %s", workerBits, processBits));
+        }
+        if (counterBits < MIN_COUNTER_BITS || counterBits > RANDOM_BITS) {
+            throw new IllegalArgumentException(
+                    String.format("Counter bits out of range [%s, %s]: %s", MIN_COUNTER_BITS, RANDOM_BITS, counterBits));
+        }
+        if (workerBits + processBits + counterBits != RANDOM_BITS) {
+            throw new IllegalArgumentException(
+                    String.format("Layout bits must add up to %s: %s + %s + %s",
+                            RANDOM_BITS, workerBits, processBits, counterBits));
+        }
+    }
+
+    /**
+     * @return the number of bits of the node identifier
+     */
+    public int nodeBits() {
+        return workerBits + processBits;
+    }
+
+    /**
+     * @return the highest worker identifier
+     */
+    public int maxWorker() {
+        return (1 << workerBits) - 1;
+    }
+
+    /**
+     * @return the highest process identifier
+     */
+    public int maxProcess() {
+        return (1 << processBits) - 1;
+    }
+
+    /**
+     * @return the highest number of counter bits that can identify a lane
+     */
+    public int maxLaneBits() {
+        return counterBits - MIN_COUNTER_BITS;
+    }
+
+    /**
+     * Returns the node identifier of a worker and a process.
+     *
+     * @param worker  0 ~ {@link #maxWorker()}
+     * @param process 0 ~ {@link #maxProcess()}
+     * @return the node identifier
+     * @throws IllegalArgumentException if the worker or the process is out of range
+     */
+    public int node(int worker, int process) {
+        if (worker < 0 || worker > maxWorker()) {
+            throw new IllegalArgumentException(
+                    String.format("Worker ID out of range [0, %s]: %s", maxWorker(), worker));
+        }
+        if (process < 0 || process > maxProcess()) {
+            throw new IllegalArgumentException(
+                    String.format("Process ID out of range [0, %s]: %s", maxProcess(), process));
+        }
+        return worker << processBits | process;
+    }
+
+    /**
+     * @param node the node identifier, for example leased from a
+     *             {@link io.glory.core.util.idgenerator.tsid.node.NodeIdAllocator}
+     * @return the worker identifier of the node
+     */
+    public int worker(int node) {
+        return (node >>> processBits) & maxWorker();
+    }
+
+    /**
+     * @param node the node identifier
+     * @return the process identifier of the node
+     */
+    public int process(int node) {
+        return node & maxProcess();
+    }
+
+    /**
+     * @param id 64bit
+     * @return the worker identifier of the id
+     */
+    public int workerOf(long id) {
+        return (int)(id >>> (counterBits + processBits)) & maxWorker();
+    }
+
+    /**
+     * @param id 64bit
+     * @return the process identifier of the id
+     */
+    public int processOf(long id) {
+        return (int)(id >>> counterBits) & maxProcess();
+    }
+
+    /**
+     * @param id 64bit
+     * @return the node identifier of the id, see {@link #node(int, int)}
+     */
+    public int nodeOf(long id) {
+        return (int)(id >>> counterBits) & ((1 << nodeBits()) - 1);
+    }
+
+    /**
+     * @param id 64bit
+     * @return the counter of the id
+     */
+    public int sequenceOf(long id) {
+        return (int)id & ((1 << counterBits) - 1);
+    }
+
+    /**
+     * @param id 64bit
+     * @return [timestamp, worker, process, sequence]
+     */
+    public long[] parse(long id) {
+        final long[] array = new long[4];
+        array[0] = timestamp(id);
+        array[1] = workerOf(id);
+        array[2] = processOf(id);
+        array[3] = sequenceOf(id);
+        return array;
+    }
+
+    /**
+     * Parses IDs into a new {@link TsidColumns}.
+     *
+     * @param ids 64bit ids
+     * @return the fields of the ids
+     */
+    public TsidColumns parse(long[] ids) {
+        return parse(ids, 0, ids.length, new TsidColumns(ids.length));
+    }
+
+    /**
+     * Parses a range of IDs into columns, replacing their content.
+     *
+     * @param ids     the source array
+     * @param offset  the index of the first id
+     * @param length  the amount of ids
+     * @param columns the destination, whose capacity is at least the length
+     * @return the columns
+     * @throws IndexOutOfBoundsException if the range is out of the array bounds
+     * @throws IllegalArgumentException  if the length exceeds the capacity of the columns
+     */
+    public TsidColumns parse(long[] ids, int offset, int length, TsidColumns columns) {
+        Objects.checkFromIndexSize(offset, length, ids.length);
+        if (length > columns.capacity()) {
+            throw new IllegalArgumentException(
+                    String.format("Length out of range [0, %s]: %s", columns.capacity(), length));
+        }
+        final long[] timestamps = columns.timestamps();
+        final int[] workers = columns.workers();
+        final int[] processes = columns.processes();
+        final int[] sequences = columns.sequences();
+        for (int i = 0; i < length; i++) {
+            final long id = ids[offset + i];
+            timestamps[i] = timestamp(id);
+            workers[i] = workerOf(id);
+            processes[i] = processOf(id);
+            sequences[i] = sequenceOf(id);
+        }
+        columns.setSize(length);
+        return columns;
+    }
+
+    /**
+     * Parses an ID whose counter is split into lanes, like the IDs of
+     * {@link StripedTsidGenerator}.
+     *
+     * @param id       64bit
+     * @param laneBits 0 ~ {@link #maxLaneBits()}, the number of counter bits used to identify a lane
+     * @return [timestamp, worker, process, lane, sequence]
+     */
+    public long[] parse(long id, int laneBits) {
+        if (laneBits < 0 || laneBits > maxLaneBits()) {
+            throw new IllegalArgumentException(
+                    String.format("Lane bits out of range [0, %s]: %s", maxLaneBits(), laneBits));
+        }
+        final int sequenceBits = counterBits - laneBits;
+        final long[] array = new long[5];
+        array[0] = timestamp(id);
+        array[1] = workerOf(id);
+        array[2] = processOf(id);
+        array[3] = (id >>> sequenceBits) & ((1L << laneBits) - 1);
+        array[4] = id & ((1L << sequenceBits) - 1);
+        return array;
+    }
+
+    /**
+     * @param id 64bit
+     * @return the unix time in milliseconds
+     */
+    public static long timestamp(long id) {
+        return (id >>> RANDOM_BITS) + TsidGenerator.CUSTOM_EPOCH.toEpochMilli();
+    }
+
+    /**
+     * Returns the lowest ID generated at a time, whatever the layout.
+     * <p>
+     * The time is clamped between the epoch and the highest time of a positive ID.
+     *
+     * @param unixMillis the unix time in milliseconds
+     * @return the lowest 64bit id of the millisecond
+     */
+    public static long minId(long unixMillis) {
+        return clampTime(unixMillis) << RANDOM_BITS;
+    }
+
+    /**
+     * Returns the highest ID generated at a time, whatever the layout.
+     * <p>
+     * The time is clamped between the epoch and the highest time of a positive ID.
+     *
+     * @param unixMillis the unix time in milliseconds
+     * @return the highest 64bit id of the millisecond
+     */
+    public static long maxId(long unixMillis) {
+        return clampTime(unixMillis) << RANDOM_BITS | ((1L << RANDOM_BITS) - 1);
+    }
+
+    /**
+     * @param id 64bit
+     * @return LocalDateTime
+     */
+    public static LocalDateTime generatedAt(long id) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp(id)), ZoneId.systemDefault());
+    }
+
+    private static long clampTime(long unixMillis) {
+        final long time = unixMillis - TsidGenerator.CUSTOM_EPOCH.toEpochMilli();
+        return Math.min(Math.max(time, 0), (1L << (Long.SIZE - RANDOM_BITS - 1)) - 1);
+    }
+
+}
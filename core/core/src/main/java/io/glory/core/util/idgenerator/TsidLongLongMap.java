@@ -0,0 +1,272 @@
+package io.glory.core.util.idgenerator;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from TSIDs to longs, without boxing.
+ * <p>
+ * The same table as {@link TsidLongMap}, with the values in a {@code long[]}:
+ * an entry takes 21 to 43 bytes instead of the ~70 bytes of an entry and two
+ * {@code Long} of a {@code HashMap<Long, Long>}, and nothing is allocated by a
+ * lookup, an update or {@link #addTo(long, long)}.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class TsidLongLongMap {
+
+    private long[]  keys;
+    private long[]  values;
+    private int     shift;
+    private int     size;
+    private int     threshold;
+    private boolean hasZeroKey;
+    private long    zeroValue;
+
+    /**
+     * Creates an empty map.
+     */
+    public TsidLongLongMap() {
+        this(0);
+    }
+
+    /**
+     * Creates an empty map that holds an amount of entries without growing.
+     *
+     * @param expectedSize the expected amount of entries
+     * @throws IllegalArgumentException if the expected size is out of range
+     */
+    public TsidLongLongMap(int expectedSize) {
+        allocate(TsidLongMap.bits(expectedSize));
+    }
+
+    /**
+     * @param key          a TSID
+     * @param defaultValue the value returned if the map does not contain the key
+     * @return the value of the key, or the default value
+     */
+    public long getOrDefault(long key, long defaultValue) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        final int index = indexOf(key);
+        return index < 0 ? defaultValue : values[index];
+    }
+
+    /**
+     * @param key a TSID
+     * @return true if the map contains the key
+     */
+    public boolean containsKey(long key) {
+        return key == 0 ? hasZeroKey : indexOf(key) >= 0;
+    }
+
+    /**
+     * Associates a value with a key.
+     *
+     * @param key   a TSID
+     * @param value the value
+     * @return true if the map did not contain the key
+     * @throws IllegalStateException if the map holds 2^30 * 3/4 entries
+     */
+    public boolean put(long key, long value) {
+        if (key == 0) {
+            zeroValue = value;
+            return addZeroKey();
+        }
+        final int index = insert(key);
+        if (index < 0) {
+            values[-index - 1] = value;
+            return false;
+        }
+        values[index] = value;
+        return true;
+    }
+
+    /**
+     * Adds a delta to the value of a key, which is 0 if there is none.
+     *
+     * @param key   a TSID
+     * @param delta the amount to add
+     * @return the new value of the key
+     * @throws IllegalStateException if the map holds 2^30 * 3/4 entries
+     */
+    public long addTo(long key, long delta) {
+        if (key == 0) {
+            if (!addZeroKey()) {
+                return zeroValue += delta;
+            }
+            return zeroValue = delta;
+        }
+        final int index = insert(key);
+        if (index < 0) {
+            return values[-index - 1] += delta;
+        }
+        return values[index] = delta;
+    }
+
+    /**
+     * Removes the entry of a key.
+     *
+     * @param key a TSID
+     * @return true if the map contained the key
+     */
+    public boolean remove(long key) {
+        if (key == 0) {
+            if (hasZeroKey) {
+                hasZeroKey = false;
+                size--;
+                return true;
+            }
+            return false;
+        }
+        final int index = indexOf(key);
+        if (index < 0) {
+            return false;
+        }
+        shiftBack(index);
+        size--;
+        return true;
+    }
+
+    /**
+     * @return the number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if the map contains no entry
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all the entries, keeping the capacity.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        hasZeroKey = false;
+        size = 0;
+    }
+
+    /**
+     * Calls an action with every entry, in no particular order.
+     *
+     * @param action the action
+     */
+    public void forEach(EntryConsumer action) {
+        if (hasZeroKey) {
+            action.accept(0L, zeroValue);
+        }
+        final long[] keys = this.keys;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    private boolean addZeroKey() {
+        if (hasZeroKey) {
+            return false;
+        }
+        hasZeroKey = true;
+        size++;
+        return true;
+    }
+
+    private int indexOf(long key) {
+        final long[] keys = this.keys;
+        final int mask = keys.length - 1;
+        for (int i = TsidLongMap.slot(key, shift); ; i = (i + 1) & mask) {
+            final long k = keys[i];
+            if (k == key) {
+                return i;
+            }
+            if (k == 0) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * @return the index of a new key, or (-index - 1) if the key was present
+     */
+    private int insert(long key) {
+        final long[] keys = this.keys;
+        final int mask = keys.length - 1;
+        int i = TsidLongMap.slot(key, shift);
+        for (long k; (k = keys[i]) != 0; i = (i + 1) & mask) {
+            if (k == key) {
+                return -i - 1;
+            }
+        }
+        if (size >= threshold) {
+            grow();
+            return insert(key);
+        }
+        keys[i] = key;
+        size++;
+        return i;
+    }
+
+    private void allocate(int bits) {
+        this.keys = new long[1 << bits];
+        this.values = new long[1 << bits];
+        this.shift = Long.SIZE - bits;
+        this.threshold = (1 << bits) / 4 * 3;
+    }
+
+    private void grow() {
+        final long[] oldKeys = this.keys;
+        final long[] oldValues = this.values;
+        if (oldKeys.length == TsidLongMap.MAX_LENGTH) {
+            throw new IllegalStateException(String.format("Map is full: %s entries", size));
+        }
+        allocate(Long.SIZE - shift + 1);
+        final int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            final long key = oldKeys[j];
+            if (key != 0) {
+                int i = TsidLongMap.slot(key, shift);
+                while (keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = key;
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private void shiftBack(int gap) {
+        final long[] keys = this.keys;
+        final int mask = keys.length - 1;
+        for (int i = (gap + 1) & mask; keys[i] != 0; i = (i + 1) & mask) {
+            final int home = TsidLongMap.slot(keys[i], shift);
+            // the entry may move to the gap if its home is not in (gap, i]
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        keys[gap] = 0L;
+    }
+
+    /**
+     * An action on an entry of a map from TSIDs to longs.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+
+        /**
+         * @param key   a TSID
+         * @param value the value of the key
+         */
+        void accept(long key, long value);
+
+    }
+
+}
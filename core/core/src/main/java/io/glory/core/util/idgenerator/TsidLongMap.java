@@ -0,0 +1,306 @@
+package io.glory.core.util.idgenerator;
+
+import java.util.Arrays;
+import java.util.function.LongFunction;
+
+/**
+ * A hash map from TSIDs to objects, without boxing the keys.
+ * <p>
+ * The keys and the values are kept in two arrays with open addressing and
+ * linear probing, so a {@link #get(long)} or a {@link #put(long, Object)} that
+ * does not grow the map allocates nothing. An entry takes 16 to 32 bytes plus
+ * the value, instead of the ~50 bytes of an entry and a {@code Long} of a
+ * {@code HashMap<Long, V>}.
+ * <p>
+ * The low bits of TSIDs are mostly a counter and the high bits a timestamp, so
+ * neither half can be used as a slot. The key is multiplied by 2^64 / phi and
+ * the slot taken from the high bits of the product, which depend on every bit
+ * of the key and spread consecutive IDs evenly (see {@link #slot(long, int)}).
+ * The key {@code 0} is kept apart, the empty slots being zeros. Removed entries
+ * are filled by shifting back the next entries of their run, so lookups never
+ * skip tombstones.
+ * <p>
+ * Null values are not allowed. This class is not thread-safe.
+ *
+ * @param <V> the type of the values
+ */
+public class TsidLongMap<V> {
+
+    static final     long     PHI         = 0x9E3779B97F4A7C15L;
+    static final     int      MIN_BITS    = 4;
+    static final     int      MAX_LENGTH  = 1 << 30;
+    private          long[]   keys;
+    private          Object[] values;
+    private          int      shift;
+    private          int      size;
+    private          int      threshold;
+    private          Object   zeroValue;
+
+    /**
+     * Creates an empty map.
+     */
+    public TsidLongMap() {
+        this(0);
+    }
+
+    /**
+     * Creates an empty map that holds an amount of entries without growing.
+     *
+     * @param expectedSize the expected amount of entries
+     * @throws IllegalArgumentException if the expected size is out of range
+     */
+    public TsidLongMap(int expectedSize) {
+        allocate(bits(expectedSize));
+    }
+
+    /**
+     * @param key a TSID
+     * @return the value of the key, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        if (key == 0) {
+            return (V)zeroValue;
+        }
+        final long[] keys = this.keys;
+        final int mask = keys.length - 1;
+        for (int i = slot(key, shift); ; i = (i + 1) & mask) {
+            final long k = keys[i];
+            if (k == key) {
+                return (V)values[i];
+            }
+            if (k == 0) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * @param key a TSID
+     * @return true if the map contains the key
+     */
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Associates a value with a key.
+     *
+     * @param key   a TSID
+     * @param value the value, not null
+     * @return the previous value of the key, or null if there was none
+     * @throws IllegalArgumentException if the value is null
+     * @throws IllegalStateException    if the map holds 2^30 * 3/4 entries
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Value must not be null");
+        }
+        if (key == 0) {
+            final Object previous = zeroValue;
+            zeroValue = value;
+            if (previous == null) {
+                size++;
+            }
+            return (V)previous;
+        }
+        final long[] keys = this.keys;
+        final int mask = keys.length - 1;
+        int i = slot(key, shift);
+        for (long k; (k = keys[i]) != 0; i = (i + 1) & mask) {
+            if (k == key) {
+                final Object previous = values[i];
+                values[i] = value;
+                return (V)previous;
+            }
+        }
+        if (size >= threshold) {
+            grow();
+            return put(key, value);
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+        return null;
+    }
+
+    /**
+     * Returns the value of a key, computing and adding it if there is none.
+     *
+     * @param key      a TSID
+     * @param function computes the value of the key, not null
+     * @return the current or computed value
+     * @throws IllegalArgumentException if the function returns null
+     */
+    public V computeIfAbsent(long key, LongFunction<? extends V> function) {
+        final V current = get(key);
+        if (current != null) {
+            return current;
+        }
+        final V value = function.apply(key);
+        put(key, value);
+        return value;
+    }
+
+    /**
+     * Removes the entry of a key.
+     *
+     * @param key a TSID
+     * @return the value of the key, or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        if (key == 0) {
+            final Object previous = zeroValue;
+            if (previous != null) {
+                zeroValue = null;
+                size--;
+            }
+            return (V)previous;
+        }
+        final long[] keys = this.keys;
+        final int mask = keys.length - 1;
+        for (int i = slot(key, shift); ; i = (i + 1) & mask) {
+            final long k = keys[i];
+            if (k == key) {
+                final Object previous = values[i];
+                shiftBack(i);
+                size--;
+                return (V)previous;
+            }
+            if (k == 0) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * @return the number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if the map contains no entry
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all the entries, keeping the capacity.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(values, null);
+        zeroValue = null;
+        size = 0;
+    }
+
+    /**
+     * Calls an action with every entry, in no particular order.
+     *
+     * @param action the action
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> action) {
+        if (zeroValue != null) {
+            action.accept(0L, (V)zeroValue);
+        }
+        final long[] keys = this.keys;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                action.accept(keys[i], (V)values[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the slot of a key: the high bits of its product with 2^64 / phi.
+     *
+     * @param key   a TSID
+     * @param shift 64 - log2(table length)
+     * @return an index in the table
+     */
+    static int slot(long key, int shift) {
+        return (int)((key * PHI) >>> shift);
+    }
+
+    /**
+     * @return log2 of a table length that holds an amount of entries under a 3/4 load
+     */
+    static int bits(int expectedSize) {
+        if (expectedSize < 0 || expectedSize > (1 << 29)) {
+            throw new IllegalArgumentException(String.format("Expected size out of range [0, 2^29]: %s", expectedSize));
+        }
+        final long length = (expectedSize * 4L + 2) / 3;
+        return Math.max(MIN_BITS, Long.SIZE - Long.numberOfLeadingZeros(Math.max(length - 1, 1)));
+    }
+
+    private void allocate(int bits) {
+        this.keys = new long[1 << bits];
+        this.values = new Object[1 << bits];
+        this.shift = Long.SIZE - bits;
+        this.threshold = (1 << bits) / 4 * 3;
+    }
+
+    private void grow() {
+        final long[] oldKeys = this.keys;
+        final Object[] oldValues = this.values;
+        if (oldKeys.length == MAX_LENGTH) {
+            throw new IllegalStateException(String.format("Map is full: %s entries", size));
+        }
+        allocate(Long.SIZE - shift + 1);
+        final int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            final long key = oldKeys[j];
+            if (key != 0) {
+                int i = slot(key, shift);
+                while (keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = key;
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    /**
+     * Empties a slot, moving back the next entries of the run that would not be
+     * found past the empty slot.
+     */
+    private void shiftBack(int gap) {
+        final long[] keys = this.keys;
+        final int mask = keys.length - 1;
+        for (int i = (gap + 1) & mask; keys[i] != 0; i = (i + 1) & mask) {
+            final int home = slot(keys[i], shift);
+            // the entry may move to the gap if its home is not in (gap, i]
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        keys[gap] = 0L;
+        values[gap] = null;
+    }
+
+    /**
+     * An action on an entry of a map with TSID keys.
+     *
+     * @param <V> the type of the values
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+
+        /**
+         * @param key   a TSID
+         * @param value the value of the key
+         */
+        void accept(long key, V value);
+
+    }
+
+}
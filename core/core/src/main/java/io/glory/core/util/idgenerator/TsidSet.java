@@ -0,0 +1,465 @@
+package io.glory.core.util.idgenerator;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A compressed set of TSIDs.
+ * <p>
+ * The IDs are split like in a Roaring bitmap: the high 32 bits, about one
+ * second of time, select a container, and the container keeps the low 32 bits
+ * sorted in blocks of up to {@value #BLOCK_SIZE} values. A block stores its
+ * first value and the gaps to the next values as variable-length integers, so
+ * the IDs of the same millisecond take one byte each instead of the ~50 bytes
+ * of an entry of a {@code HashSet<Long>}.
+ * <p>
+ * The IDs are iterated in ascending order, which is the time order of TSIDs.
+ * IDs added in ascending order are appended to the last block; other IDs are
+ * inserted into their block, which is decoded and encoded again.
+ * <p>
+ * This class is not thread-safe, and its iterators do not detect concurrent
+ * modifications.
+ */
+public class TsidSet implements Iterable<Long> {
+
+    static final     int         BLOCK_SIZE = 128;
+    private          int[]       keys       = new int[4];
+    private          Container[] containers = new Container[4];
+    private          int         keyCount;
+    private          long        size;
+
+    /**
+     * Adds an ID.
+     *
+     * @param id 64bit
+     * @return true if the set did not contain the id
+     */
+    public boolean add(long id) {
+        final int key = (int)(id >>> 32);
+        int index = findKey(key);
+        if (index < 0) {
+            index = -index - 1;
+            insertKey(index, key);
+        }
+        if (containers[index].add((int)id)) {
+            size++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Adds a range of IDs.
+     *
+     * @param ids    the source array
+     * @param offset the index of the first id
+     * @param length the amount of ids
+     * @return the number of ids the set did not contain
+     * @throws IndexOutOfBoundsException if the range is out of the array bounds
+     */
+    public int addAll(long[] ids, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, ids.length);
+        int added = 0;
+        for (int i = offset; i < offset + length; i++) {
+            if (add(ids[i])) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * @param id 64bit
+     * @return true if the set contains the id
+     */
+    public boolean contains(long id) {
+        final int index = findKey((int)(id >>> 32));
+        return index >= 0 && containers[index].contains((int)id);
+    }
+
+    /**
+     * @return the number of IDs in the set
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return true if the set contains no ID
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the IDs of this set or of another one, as a new set.
+     *
+     * @param other a set
+     * @return the union of the sets
+     */
+    public TsidSet union(TsidSet other) {
+        final TsidSet union = new TsidSet();
+        final PrimitiveIterator.OfLong a = this.iterator();
+        final PrimitiveIterator.OfLong b = other.iterator();
+        boolean hasA = a.hasNext();
+        boolean hasB = b.hasNext();
+        long x = hasA ? a.nextLong() : 0;
+        long y = hasB ? b.nextLong() : 0;
+        while (hasA || hasB) {
+            if (hasA && (!hasB || x <= y)) {
+                union.add(x);
+                if (hasB && x == y) {
+                    y = (hasB = b.hasNext()) ? b.nextLong() : 0;
+                }
+                x = (hasA = a.hasNext()) ? a.nextLong() : 0;
+            } else {
+                union.add(y);
+                y = (hasB = b.hasNext()) ? b.nextLong() : 0;
+            }
+        }
+        return union;
+    }
+
+    /**
+     * Returns the IDs of this set that another one contains, as a new set.
+     *
+     * @param other a set
+     * @return the intersection of the sets
+     */
+    public TsidSet intersection(TsidSet other) {
+        final TsidSet intersection = new TsidSet();
+        final PrimitiveIterator.OfLong a = this.iterator();
+        final PrimitiveIterator.OfLong b = other.iterator();
+        if (!a.hasNext() || !b.hasNext()) {
+            return intersection;
+        }
+        long x = a.nextLong();
+        long y = b.nextLong();
+        for (; ; ) {
+            if (x < y) {
+                if (!a.hasNext()) {
+                    return intersection;
+                }
+                x = a.nextLong();
+            } else if (x > y) {
+                if (!b.hasNext()) {
+                    return intersection;
+                }
+                y = b.nextLong();
+            } else {
+                intersection.add(x);
+                if (!a.hasNext() || !b.hasNext()) {
+                    return intersection;
+                }
+                x = a.nextLong();
+                y = b.nextLong();
+            }
+        }
+    }
+
+    /**
+     * Returns an iterator over the IDs in ascending order.
+     *
+     * @return an iterator
+     */
+    @Override
+    public PrimitiveIterator.OfLong iterator() {
+        return new Iter();
+    }
+
+    /**
+     * @return the IDs in ascending order
+     */
+    public LongStream stream() {
+        final Spliterator.OfLong spliterator = Spliterators.spliterator(iterator(), size,
+                Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL);
+        return StreamSupport.longStream(spliterator, false);
+    }
+
+    /**
+     * Returns an estimate of the heap size of the set, for a JVM with compressed
+     * references.
+     *
+     * @return a number of bytes
+     */
+    public long sizeInBytes() {
+        long bytes = 16 + 16 + 4L * keys.length + 16 + 4L * containers.length + 16;
+        for (int i = 0; i < keyCount; i++) {
+            bytes += containers[i].sizeInBytes();
+        }
+        return bytes;
+    }
+
+    private int findKey(int key) {
+        // IDs are mostly added in time order
+        if (keyCount > 0 && keys[keyCount - 1] == key) {
+            return keyCount - 1;
+        }
+        return Arrays.binarySearch(keys, 0, keyCount, key);
+    }
+
+    private void insertKey(int index, int key) {
+        if (keyCount == keys.length) {
+            keys = Arrays.copyOf(keys, keyCount * 2);
+            containers = Arrays.copyOf(containers, keyCount * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, keyCount - index);
+        System.arraycopy(containers, index, containers, index + 1, keyCount - index);
+        keys[index] = key;
+        containers[index] = new Container();
+        keyCount++;
+    }
+
+    /**
+     * The low 32 bits of the IDs of a key, in blocks sorted as unsigned numbers.
+     */
+    private static final class Container {
+
+        private Block[] blocks = new Block[1];
+        private int     blockCount;
+
+        boolean contains(int low) {
+            final int index = findBlock(low);
+            return index >= 0 && blocks[index].contains(low);
+        }
+
+        boolean add(int low) {
+
+            if (blockCount == 0) {
+                insertBlock(0, new Block(low));
+                return true;
+            }
+
+            // below the first value: the first block gets a new first value
+            final int index = Math.max(findBlock(low), 0);
+            final Block block = blocks[index];
+
+            if (Integer.compareUnsigned(low, block.last) > 0) {
+                if (block.count < BLOCK_SIZE) {
+                    block.append(low);
+                    return true;
+                }
+                if (index == blockCount - 1) {
+                    insertBlock(blockCount, new Block(low));
+                    return true;
+                }
+            }
+
+            final int[] values = new int[block.count + 1];
+            block.decode(values);
+            int position = 0;
+            while (position < block.count && Integer.compareUnsigned(values[position], low) < 0) {
+                position++;
+            }
+            if (position < block.count && values[position] == low) {
+                return false;
+            }
+            System.arraycopy(values, position, values, position + 1, block.count - position);
+            values[position] = low;
+
+            if (values.length <= BLOCK_SIZE) {
+                blocks[index] = Block.encode(values, 0, values.length);
+            } else {
+                final int half = values.length / 2;
+                blocks[index] = Block.encode(values, 0, half);
+                insertBlock(index + 1, Block.encode(values, half, values.length - half));
+            }
+            return true;
+        }
+
+        long sizeInBytes() {
+            long bytes = 16 + 16 + 4L * blocks.length;
+            for (int i = 0; i < blockCount; i++) {
+                bytes += blocks[i].sizeInBytes();
+            }
+            return bytes;
+        }
+
+        /**
+         * @return the index of the last block whose first value is lower than or
+         *         equal to the value, -1 if none
+         */
+        private int findBlock(int low) {
+            if (Integer.compareUnsigned(blocks[blockCount - 1].first, low) <= 0) {
+                return blockCount - 1;
+            }
+            int lowIndex = 0;
+            int highIndex = blockCount - 1;
+            while (lowIndex < highIndex) {
+                final int mid = (lowIndex + highIndex) >>> 1;
+                if (Integer.compareUnsigned(blocks[mid].first, low) <= 0) {
+                    lowIndex = mid + 1;
+                } else {
+                    highIndex = mid;
+                }
+            }
+            return lowIndex - 1;
+        }
+
+        private void insertBlock(int index, Block block) {
+            if (blockCount == blocks.length) {
+                blocks = Arrays.copyOf(blocks, blockCount * 2);
+            }
+            System.arraycopy(blocks, index, blocks, index + 1, blockCount - index);
+            blocks[index] = block;
+            blockCount++;
+        }
+
+    }
+
+    /**
+     * A first value followed by the gaps to the next values, as unsigned LEB128
+     * integers.
+     */
+    private static final class Block {
+
+        private final int    first;
+        private       int    last;
+        private       int    count;
+        private       byte[] gaps;
+        private       int    length;
+
+        Block(int first) {
+            this.first = first;
+            this.last = first;
+            this.count = 1;
+            this.gaps = new byte[8];
+        }
+
+        static Block encode(int[] values, int offset, int length) {
+            final Block block = new Block(values[offset]);
+            for (int i = offset + 1; i < offset + length; i++) {
+                block.append(values[i]);
+            }
+            return block;
+        }
+
+        void append(int value) {
+            long gap = Integer.toUnsignedLong(value) - Integer.toUnsignedLong(last);
+            if (length + 5 > gaps.length) {
+                gaps = Arrays.copyOf(gaps, gaps.length + (gaps.length >> 1) + 5);
+            }
+            while (gap >= 0x80) {
+                gaps[length++] = (byte)(gap | 0x80);
+                gap >>>= 7;
+            }
+            gaps[length++] = (byte)gap;
+            last = value;
+            if (++count == BLOCK_SIZE) {
+                gaps = Arrays.copyOf(gaps, length);
+            }
+        }
+
+        boolean contains(int value) {
+            if (Integer.compareUnsigned(value, first) < 0 || Integer.compareUnsigned(value, last) > 0) {
+                return false;
+            }
+            final long target = Integer.toUnsignedLong(value);
+            long current = Integer.toUnsignedLong(first);
+            int position = 0;
+            while (current < target) {
+                long gap = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = gaps[position++];
+                    gap |= (long)(b & 0x7f) << shift;
+                    shift += 7;
+                } while (b < 0);
+                current += gap;
+            }
+            return current == target;
+        }
+
+        void decode(int[] values) {
+            long current = Integer.toUnsignedLong(first);
+            values[0] = first;
+            int position = 0;
+            for (int i = 1; i < count; i++) {
+                long gap = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = gaps[position++];
+                    gap |= (long)(b & 0x7f) << shift;
+                    shift += 7;
+                } while (b < 0);
+                current += gap;
+                values[i] = (int)current;
+            }
+        }
+
+        long sizeInBytes() {
+            return 16 + 4 * 4 + 4 + 16 + gaps.length;
+        }
+
+    }
+
+    /**
+     * Iterates over the containers, then over their blocks, decoding the gaps.
+     */
+    private final class Iter implements PrimitiveIterator.OfLong {
+
+        private int   keyIndex;
+        private int   blockIndex = -1;
+        private Block block;
+        private int   position;
+        private int   remaining;
+        private long  low;
+
+        @Override
+        public boolean hasNext() {
+            while (remaining == 0) {
+                if (!nextBlock()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public long nextLong() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (remaining == block.count) {
+                low = Integer.toUnsignedLong(block.first);
+            } else {
+                long gap = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = block.gaps[position++];
+                    gap |= (long)(b & 0x7f) << shift;
+                    shift += 7;
+                } while (b < 0);
+                low += gap;
+            }
+            remaining--;
+            return (long)keys[keyIndex] << 32 | low;
+        }
+
+        private boolean nextBlock() {
+            while (keyIndex < keyCount) {
+                final Container container = containers[keyIndex];
+                if (++blockIndex < container.blockCount) {
+                    block = container.blocks[blockIndex];
+                    position = 0;
+                    remaining = block.count;
+                    return true;
+                }
+                keyIndex++;
+                blockIndex = -1;
+            }
+            return false;
+        }
+
+    }
+
+}
@@ -2,10 +2,12 @@ package io.glory.core.util.idgenerator.tsid;
 
 import java.io.Serial;
 import java.io.Serializable;
-import java.math.BigInteger;
+import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Arrays;
+import java.util.Objects;
 import java.util.SplittableRandom;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -60,6 +62,9 @@ public final class Tsid implements Serializable, Comparable<Tsid> {
     private static final char[] ALPHABET_UPPERCASE = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
     private static final char[] ALPHABET_LOWERCASE = "0123456789abcdefghjkmnpqrstvwxyz".toCharArray();
     private static final long[] ALPHABET_VALUES    = new long[128];
+    private static final byte[] ASCII_UPPERCASE    = new byte[32];
+    private static final byte[] ASCII_VALUES       = new byte[256];
+    private static final int[]  NO_INDICES         = new int[0];
 
     static {
         Arrays.fill(ALPHABET_VALUES, -1);
@@ -128,6 +133,14 @@ public final class Tsid implements Serializable, Comparable<Tsid> {
         ALPHABET_VALUES['O'] = 0x00;
         ALPHABET_VALUES['I'] = 0x01;
         ALPHABET_VALUES['L'] = 0x01;
+
+        // Tables of the bulk codecs
+        for (int i = 0; i < ASCII_UPPERCASE.length; i++) {
+            ASCII_UPPERCASE[i] = (byte)ALPHABET_UPPERCASE[i];
+        }
+        for (int i = 0; i < ASCII_VALUES.length; i++) {
+            ASCII_VALUES[i] = i < ALPHABET_VALUES.length ? (byte)ALPHABET_VALUES[i] : -1;
+        }
     }
 
     private final long number;
@@ -218,6 +231,149 @@ public final class Tsid implements Serializable, Comparable<Tsid> {
         return new Tsid(number);
     }
 
+    /**
+     * Parses a canonical string embedded in a sequence of characters.
+     * <p>
+     * It is the same as {@code Tsid.from(string).toLong()}, but it reads the 13
+     * characters starting at {@code offset} without creating a {@link String} or
+     * a {@link Tsid} first.
+     *
+     * @param chars  a sequence of characters, for example a {@link StringBuilder}
+     * @param offset the index of the first character
+     * @return a number
+     * @throws IndexOutOfBoundsException if the 13 characters are out of bounds
+     * @throws IllegalArgumentException  if the characters are not a valid TSID
+     * @see <a href="https://www.crockford.com/base32.html">Crockford's Base 32</a>
+     */
+    public static long parse(final CharSequence chars, final int offset) {
+
+        Objects.checkFromIndexSize(offset, TSID_CHARS, chars.length());
+
+        long number = 0;
+        for (int i = 0; i < TSID_CHARS; i++) {
+            final long value = valueOf(chars.charAt(offset + i), i);
+            if (value < 0) {
+                throw invalidString(chars.subSequence(offset, offset + TSID_CHARS));
+            }
+            number = (number << 5) | value;
+        }
+        return number;
+    }
+
+    /**
+     * Parses a canonical string encoded in ASCII in a byte array.
+     * <p>
+     * It is the same as {@code Tsid.from(string).toLong()}, but it reads the 13
+     * bytes starting at {@code offset} without creating a {@link String} or a
+     * {@link Tsid} first.
+     *
+     * @param bytes  a byte array, for example a network buffer
+     * @param offset the index of the first byte
+     * @return a number
+     * @throws IndexOutOfBoundsException if the 13 bytes are out of bounds
+     * @throws IllegalArgumentException  if the bytes are not a valid TSID
+     * @see <a href="https://www.crockford.com/base32.html">Crockford's Base 32</a>
+     */
+    public static long parse(final byte[] bytes, final int offset) {
+
+        Objects.checkFromIndexSize(offset, TSID_CHARS, bytes.length);
+
+        long number = 0;
+        for (int i = 0; i < TSID_CHARS; i++) {
+            final long value = valueOf((char)(bytes[offset + i] & 0xff), i);
+            if (value < 0) {
+                throw invalidString(new String(bytes, offset, TSID_CHARS, StandardCharsets.ISO_8859_1));
+            }
+            number = (number << 5) | value;
+        }
+        return number;
+    }
+
+    /**
+     * Writes the canonical strings in upper case of a range of numbers to a byte
+     * array, encoded in ASCII and packed without separators.
+     * <p>
+     * The string of {@code numbers[offset + i]} is written at
+     * {@code bytes[bytesOffset + 13 * i]}. It is the same as calling
+     * {@link #writeTo(byte[], int)} for every number, but without creating a
+     * {@link Tsid} for each one.
+     *
+     * @param numbers     the source array
+     * @param offset      the index of the first number
+     * @param length      the amount of numbers
+     * @param bytes       the destination array, {@code 13 * length} bytes from
+     *                    {@code bytesOffset}
+     * @param bytesOffset the index of the first byte
+     * @return the index after the last byte
+     * @throws IndexOutOfBoundsException if a range is out of the array bounds
+     */
+    public static int writeAll(final long[] numbers, final int offset, final int length,
+                               final byte[] bytes, final int bytesOffset) {
+
+        Objects.checkFromIndexSize(offset, length, numbers.length);
+        Objects.checkFromIndexSize(bytesOffset, Math.multiplyExact(length, TSID_CHARS), bytes.length);
+
+        int position = bytesOffset;
+        for (int i = 0; i < length; i++) {
+            write(numbers[offset + i], bytes, position);
+            position += TSID_CHARS;
+        }
+        return position;
+    }
+
+    /**
+     * Parses canonical strings encoded in ASCII and packed without separators,
+     * like the output of {@link #writeAll(long[], int, int, byte[], int)}.
+     * <p>
+     * The whole batch is parsed in one pass. An invalid string does not stop the
+     * batch: its number is set to zero and its index is reported.
+     *
+     * @param bytes       the source array, {@code 13 * length} bytes from
+     *                    {@code bytesOffset}
+     * @param bytesOffset the index of the first byte
+     * @param numbers     the destination array
+     * @param offset      the index of the first number
+     * @param length      the amount of numbers
+     * @return the indexes of the invalid strings in the batch, from 0 to
+     * {@code length - 1} in ascending order, or an empty array if all are valid
+     * @throws IndexOutOfBoundsException if a range is out of the array bounds
+     */
+    public static int[] parseAll(final byte[] bytes, final int bytesOffset,
+                                 final long[] numbers, final int offset, final int length) {
+
+        Objects.checkFromIndexSize(offset, length, numbers.length);
+        Objects.checkFromIndexSize(bytesOffset, Math.multiplyExact(length, TSID_CHARS), bytes.length);
+
+        int[] invalid = NO_INDICES;
+        int invalidCount = 0;
+
+        int position = bytesOffset;
+        for (int i = 0; i < length; i++) {
+
+            // the first character must be between 0 and F
+            final int first = ASCII_VALUES[bytes[position] & 0xff];
+            int errors = first | (first & 0b10000) << 27;
+            long number = first;
+            for (int j = 1; j < TSID_CHARS; j++) {
+                final int value = ASCII_VALUES[bytes[position + j] & 0xff];
+                errors |= value;
+                number = (number << 5) | (value & 0b11111);
+            }
+            position += TSID_CHARS;
+
+            if (errors < 0) {
+                if (invalidCount == invalid.length) {
+                    invalid = Arrays.copyOf(invalid, Math.max(8, invalidCount * 2));
+                }
+                invalid[invalidCount++] = i;
+                number = 0;
+            }
+            numbers[offset + i] = number;
+        }
+
+        return invalidCount == invalid.length ? invalid : Arrays.copyOf(invalid, invalidCount);
+    }
+
     /**
      * Returns a fast new TSID.
      * <p>
@@ -410,6 +566,72 @@ public final class Tsid implements Serializable, Comparable<Tsid> {
         return toString(ALPHABET_LOWERCASE);
     }
 
+    /**
+     * Appends the canonical string in upper case to a {@link StringBuilder}.
+     * <p>
+     * It is the same as {@code builder.append(tsid.toString())}, but without
+     * creating a {@link String}.
+     *
+     * @param builder a string builder
+     * @return the string builder
+     */
+    public StringBuilder appendTo(final StringBuilder builder) {
+        final long number = this.number;
+        for (int shift = 60; shift >= 0; shift -= 5) {
+            builder.append(ALPHABET_UPPERCASE[(int)((number >>> shift) & 0b11111)]);
+        }
+        return builder;
+    }
+
+    /**
+     * Writes the canonical string in upper case to a char array.
+     *
+     * @param chars  the destination array
+     * @param offset the index of the first character
+     * @return the index after the last character, {@code offset + 13}
+     * @throws IndexOutOfBoundsException if the 13 characters are out of bounds
+     */
+    public int writeTo(final char[] chars, final int offset) {
+        Objects.checkFromIndexSize(offset, TSID_CHARS, chars.length);
+        write(chars, offset, ALPHABET_UPPERCASE);
+        return offset + TSID_CHARS;
+    }
+
+    /**
+     * Writes the canonical string in upper case to a byte array, encoded in ASCII.
+     *
+     * @param bytes  the destination array
+     * @param offset the index of the first byte
+     * @return the index after the last byte, {@code offset + 13}
+     * @throws IndexOutOfBoundsException if the 13 bytes are out of bounds
+     */
+    public int writeTo(final byte[] bytes, final int offset) {
+        Objects.checkFromIndexSize(offset, TSID_CHARS, bytes.length);
+        write(this.number, bytes, offset);
+        return offset + TSID_CHARS;
+    }
+
+    /**
+     * Writes the canonical string in upper case to a byte buffer, encoded in ASCII.
+     * <p>
+     * The string is written at the current position, which is then incremented
+     * by 13.
+     *
+     * @param buffer the destination buffer
+     * @return the buffer
+     * @throws BufferOverflowException if fewer than 13 bytes remain
+     */
+    public ByteBuffer writeTo(final ByteBuffer buffer) {
+        if (buffer.remaining() < TSID_CHARS) {
+            throw new BufferOverflowException();
+        }
+        final long number = this.number;
+        for (int shift = 60; shift >= 0; shift -= 5) {
+            buffer.put((byte)ALPHABET_UPPERCASE[(int)((number >>> shift) & 0b11111)]);
+        }
+        return buffer;
+    }
+
     /**
      * Returns the instant of creation.
      * <p>
@@ -620,24 +842,54 @@ public final class Tsid implements Serializable, Comparable<Tsid> {
     String toString(final char[] alphabet) {
 
         final char[] chars = new char[TSID_CHARS];
-
-        chars[0x00] = alphabet[(int)((number >>> 60) & 0b11111)];
-        chars[0x01] = alphabet[(int)((number >>> 55) & 0b11111)];
-        chars[0x02] = alphabet[(int)((number >>> 50) & 0b11111)];
-        chars[0x03] = alphabet[(int)((number >>> 45) & 0b11111)];
-        chars[0x04] = alphabet[(int)((number >>> 40) & 0b11111)];
-        chars[0x05] = alphabet[(int)((number >>> 35) & 0b11111)];
-        chars[0x06] = alphabet[(int)((number >>> 30) & 0b11111)];
-        chars[0x07] = alphabet[(int)((number >>> 25) & 0b11111)];
-        chars[0x08] = alphabet[(int)((number >>> 20) & 0b11111)];
-        chars[0x09] = alphabet[(int)((number >>> 15) & 0b11111)];
-        chars[0x0a] = alphabet[(int)((number >>> 10) & 0b11111)];
-        chars[0x0b] = alphabet[(int)((number >>> 5) & 0b11111)];
-        chars[0x0c] = alphabet[(int)(number & 0b11111)];
+        write(chars, 0, alphabet);
 
         return new String(chars);
     }
 
+    private void write(final char[] chars, final int offset, final char[] alphabet) {
+
+        chars[offset + 0x00] = alphabet[(int)((number >>> 60) & 0b11111)];
+        chars[offset + 0x01] = alphabet[(int)((number >>> 55) & 0b11111)];
+        chars[offset + 0x02] = alphabet[(int)((number >>> 50) & 0b11111)];
+        chars[offset + 0x03] = alphabet[(int)((number >>> 45) & 0b11111)];
+        chars[offset + 0x04] = alphabet[(int)((number >>> 40) & 0b11111)];
+        chars[offset + 0x05] = alphabet[(int)((number >>> 35) & 0b11111)];
+        chars[offset + 0x06] = alphabet[(int)((number >>> 30) & 0b11111)];
+        chars[offset + 0x07] = alphabet[(int)((number >>> 25) & 0b11111)];
+        chars[offset + 0x08] = alphabet[(int)((number >>> 20) & 0b11111)];
+        chars[offset + 0x09] = alphabet[(int)((number >>> 15) & 0b11111)];
+        chars[offset + 0x0a] = alphabet[(int)((number >>> 10) & 0b11111)];
+        chars[offset + 0x0b] = alphabet[(int)((number >>> 5) & 0b11111)];
+        chars[offset + 0x0c] = alphabet[(int)(number & 0b11111)];
+    }
+
+    private static void write(final long number, final byte[] bytes, final int offset) {
+        for (int i = 0, shift = 60; i < TSID_CHARS; i++, shift -= 5) {
+            bytes[offset + i] = ASCII_UPPERCASE[(int)((number >>> shift) & 0b11111)];
+        }
+    }
+
+    /**
+     * Returns the value of a character of a canonical string, or -1 if it is not
+     * valid at that index.
+     * <p>
+     * The first character must be between 0 and F, as the extra bit added by
+     * base-32 encoding must be zero.
+     *
+     * @param c     a character
+     * @param index the index of the character in the canonical string
+     * @return a number between 0 and 31, or -1
+     */
+    private static long valueOf(final char c, final int index) {
+        final long value = c < ALPHABET_VALUES.length ? ALPHABET_VALUES[c] : -1;
+        return index == 0 && (value & 0b10000) != 0 ? -1 : value;
+    }
+
+    private static IllegalArgumentException invalidString(final CharSequence string) {
+        return new IllegalArgumentException(String.format("Invalid TSID string: \"%s\"", string));
+    }
+
     static char[] toCharArray(final String string) {
         char[] chars = string == null ? null : string.toCharArray();
         if (!isValidCharArray(chars)) {
@@ -677,13 +929,29 @@ public final class Tsid implements Serializable, Comparable<Tsid> {
         return true; // It seems to be OK.
     }
 
+    /**
+     * Base-n conversions with unsigned 64-bit arithmetic.
+     * <p>
+     * The lengths and the overflow limits are precomputed for every base, and
+     * the digits are looked up in a table instead of searching the alphabet.
+     */
     static class BaseN {
 
-        static final BigInteger MAX      = BigInteger.valueOf(2).pow(64).subtract(BigInteger.ONE);
-        static final String     ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz"; // base-62
-
-        private static int length(int base) {
-            return (int)Math.ceil(Long.SIZE / (Math.log(base) / Math.log(2)));
+        static final         String ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz"; // base-62
+        static final         int    MIN_BASE = 2;
+        static final         int    MAX_BASE = 62;
+        private static final char[] DIGITS   = ALPHABET.toCharArray();
+        private static final byte[] VALUES   = new byte[128];
+        private static final int[]  LENGTHS  = new int[MAX_BASE + 1];
+
+        static {
+            Arrays.fill(VALUES, (byte)-1);
+            for (int i = 0; i < DIGITS.length; i++) {
+                VALUES[DIGITS[i]] = (byte)i;
+            }
+            for (int base = MIN_BASE; base <= MAX_BASE; base++) {
+                LENGTHS[base] = (int)Math.ceil(Long.SIZE / (Math.log(base) / Math.log(2)));
+            }
         }
 
         private static void exception(String string) {
@@ -692,18 +960,23 @@ public final class Tsid implements Serializable, Comparable<Tsid> {
 
         static String encode(final Tsid tsid, final int base) {
 
-            if (base < 2 || base > 62) {
+            if (base < MIN_BASE || base > MAX_BASE) {
                 exception(String.format("Invalid base: %s", base));
             }
 
             long x = tsid.number;
-            int b = length(base);
-            char[] buffer = new char[b];
+            int b = LENGTHS[base];
+            final char[] buffer = new char[b];
 
-            while (Long.compareUnsigned(x, 0) > 0) {
+            if (x < 0) {
+                // the only unsigned division, the quotient is positive
                 final long div = Long.divideUnsigned(x, base);
-                final long rem = Long.remainderUnsigned(x, base);
-                buffer[--b] = ALPHABET.charAt((int)rem);
+                buffer[--b] = DIGITS[(int)(x - div * base)];
+                x = div;
+            }
+            while (x > 0) {
+                final long div = x / base;
+                buffer[--b] = DIGITS[(int)(x - div * base)];
                 x = div;
             }
 
@@ -718,7 +991,7 @@ public final class Tsid implements Serializable, Comparable<Tsid> {
             if (string == null) {
                 exception(String.format("Invalid base-%d string: null", base));
             }
-            if (base < 2 || base > 62) {
+            if (base < MIN_BASE || base > MAX_BASE) {
                 exception(String.format("Invalid base: %s", base));
             }
 
@@ -726,30 +999,28 @@ public final class Tsid implements Serializable, Comparable<Tsid> {
             long last = 0;
             long plus = 0;
 
-            final int length = length(base);
+            final int length = LENGTHS[base];
             if (string.length() != length) {
                 exception(String.format("Invalid base-%d length: %s", base, string.length()));
             }
 
             for (int i = 0; i < length; i++) {
 
-                plus = ALPHABET.indexOf(string.charAt(i));
+                final char c = string.charAt(i);
+                plus = c < VALUES.length ? VALUES[c] : -1;
                 if (plus == -1) {
-                    exception(String.format("Invalid base-%d character: %s", base, string.charAt(i)));
+                    exception(String.format("Invalid base-%d character: %s", base, c));
                 }
 
                 last = x;
                 x = (x * base) + plus;
             }
 
-            // finally, check if happened an overflow
-            ByteBuffer buff = ByteBuffer.allocate(8);
-            byte[] bytes = buff.putLong(last).array();
-            BigInteger lazt = new BigInteger(1, bytes);
-            BigInteger baze = BigInteger.valueOf(base);
-            BigInteger pluz = BigInteger.valueOf(plus);
-            if (lazt.multiply(baze).add(pluz).compareTo(MAX) > 0) {
-                throw new IllegalArgumentException(String.format("Invalid base-%d value (overflow): %s", base, lazt));
+            // finally, check if happened an overflow: last * base + plus > 2^64-1
+            final long low = last * base;
+            if (Math.unsignedMultiplyHigh(last, base) != 0 || Long.compareUnsigned(low + plus, low) < 0) {
+                throw new IllegalArgumentException(
+                        String.format("Invalid base-%d value (overflow): %s", base, Long.toUnsignedString(last)));
             }
 
             return new Tsid(x);
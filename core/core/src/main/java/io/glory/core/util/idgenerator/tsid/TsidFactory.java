@@ -3,10 +3,32 @@ package io.glory.core.util.idgenerator.tsid;
 import static io.glory.core.util.idgenerator.tsid.Tsid.RANDOM_BITS;
 import static io.glory.core.util.idgenerator.tsid.Tsid.RANDOM_MASK;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.security.SecureRandom;
 import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Objects;
 import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.IntFunction;
 import java.util.function.IntSupplier;
 import java.util.function.LongSupplier;
@@ -41,23 +63,77 @@ import java.util.function.LongSupplier;
  * This class <b>should</b> be used as a singleton. Make sure that you create
  * and reuse a single instance of {@link TsidFactory} per node in your
  * distributed system.
+ * <p>
+ * By default, concurrent callers are serialized by a {@link ReentrantLock}
+ * rather than the factory monitor, so that virtual threads waiting for the
+ * clock are not pinned to their carrier thread. A lock-free mode can be chosen
+ * with {@link Builder#withLockFree(Boolean)}. In that mode the last time and
+ * the counter are packed into a single state word that is updated with
+ * compare-and-set, so callers never block each other.
+ * <p>
+ * When the counter overflows, or when the system clock goes backward, the time
+ * component is borrowed from the future. How far it may get ahead of the system
+ * clock is bounded by {@link Builder#withMaxDrift(Duration)}, and what happens
+ * beyond that bound is chosen by {@link Builder#withDriftPolicy(DriftPolicy)}.
+ * The drift can be observed with {@link #getMetrics()}.
+ * <p>
+ * Co-located processes can share one node identifier with
+ * {@link Builder#withSharedState(Path)}: the state word is then kept in a
+ * memory-mapped file and updated with compare-and-set by every process, so the
+ * TSIDs stay unique across processes.
  */
 public final class TsidFactory {
 
-    static final  int          NODE_BITS_256  = 8;
-    static final  int          NODE_BITS_1024 = 10;
-    static final  int          NODE_BITS_4096 = 12;
-    private final int          node;
-    private final int          nodeBits;
-    private final int          counterBits;
-    private final int          nodeMask;
-    private final int          counterMask;
-    private final long         customEpoch;
-    private final LongSupplier timeFunction;
-    private final IRandom      random;
-    private final int          randomBytes;
-    private       int          counter;
-    private       long         lastTime;
+    static final         int              NODE_BITS_256  = 8;
+    static final         int              NODE_BITS_1024 = 10;
+    static final         int              NODE_BITS_4096 = 12;
+    private static final VarHandle        STATE;
+    private static final VarHandle        SHARED_STATE       =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final int              SHARED_STATE_BYTES = 3 * Long.BYTES;
+    private final        int              node;
+    private final        int              nodeBits;
+    private final        int              counterBits;
+    private final        int              nodeMask;
+    private final        int              counterMask;
+    private final        long             customEpoch;
+    private final        LongSupplier     timeFunction;
+    private final        IRandom          random;
+    private final        int              randomBytes;
+    private final        boolean          lockFree;
+    private final        DriftPolicy      driftPolicy;
+    private final        long             maxDrift;
+    private final        LongAdder        borrowedMillis     = new LongAdder();
+    private final        LongAdder        waits              = new LongAdder();
+    private final        LongAdder        failures           = new LongAdder();
+    private final        AtomicLong       maxObservedDrift   = new AtomicLong();
+    private final        AtomicLong       lastClock          = new AtomicLong();
+    /**
+     * The current second in the high 32 bits and the overflows counted in that
+     * second in the low 32 bits.
+     */
+    private final        AtomicLong       overflowWindow     = new AtomicLong();
+    private final        ReentrantLock    lock               = new ReentrantLock();
+    private volatile     long             overflowsLastSecond;
+    /**
+     * The last time in the high bits and the counter in the low
+     * {@link #counterBits} bits, so that an overflow of the counter carries into
+     * the time.
+     */
+    private volatile     long             state;
+    /**
+     * The state word at offset 0, the owner of the file at offset 8 and its epoch
+     * at offset 16, or null if the state is not shared.
+     */
+    private final        MappedByteBuffer sharedState;
+
+    static {
+        try {
+            STATE = MethodHandles.lookup().findVarHandle(TsidFactory.class, "state", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
 
     // ******************************
     // Constructors
@@ -105,8 +181,13 @@ public final class TsidFactory {
         // setup the custom epoch, the node bits, etc
         this.customEpoch = builder.getCustomEpoch();
         this.nodeBits = builder.getNodeBits();
-        this.random = builder.getRandom();
+        final Integer randomPool = builder.getRandomPool();
+        this.random = randomPool == null ? builder.getRandom() : new PooledRandom(builder.getRandom(), randomPool);
         this.timeFunction = builder.getTimeFunction();
+        this.sharedState = builder.getSharedState();
+        this.lockFree = builder.getLockFree() || sharedState != null;
+        this.driftPolicy = builder.getDriftPolicy();
+        this.maxDrift = builder.getMaxDrift();
 
         // setup constants that depend on node bits
         this.counterBits = RANDOM_BITS - nodeBits;
@@ -119,9 +200,12 @@ public final class TsidFactory {
         // setup the node identifier
         this.node = builder.getNode() & nodeMask;
 
-        // finally initialize inner state
-        this.lastTime = 0L; // 1970-01-01
-        this.counter = getRandomCounter();
+        // finally initialize inner state: last time 0L (1970-01-01) and a random counter
+        this.state = getRandomCounter();
+
+        if (sharedState != null) {
+            claimSharedState();
+        }
     }
 
     /**
@@ -203,48 +287,325 @@ public final class TsidFactory {
      *
      * @return a TSID.
      */
-    public synchronized Tsid create() {
+    public Tsid create() {
+        return new Tsid(createLong());
+    }
 
-        final long _time = getTime() << RANDOM_BITS;
-        final long _node = (long)this.node << this.counterBits;
-        final long _counter = (long)this.counter & this.counterMask;
+    /**
+     * Returns a TSID as a number.
+     * <p>
+     * It is the same as {@code create().toLong()}, but without creating a
+     * {@link Tsid} object.
+     *
+     * @return a number
+     */
+    public long createLong() {
+        return toNumber(nextState(1));
+    }
+
+    /**
+     * Fills a range of an array with TSID numbers.
+     * <p>
+     * The whole range is reserved in a single step, so the lock or the
+     * compare-and-set is taken once. The numbers are the same as the ones returned
+     * by {@code length} successive calls of {@link #createLong()} in the same
+     * millisecond.
+     * <p>
+     * The maximum drift is checked at the start of the range, so the end of a
+     * large range may get ahead of the clock by up to
+     * {@code length / 2^counterBits} more milliseconds.
+     *
+     * @param ids    the destination array
+     * @param offset the index of the first number
+     * @param length the amount of numbers
+     * @throws IndexOutOfBoundsException if the range is out of the array bounds
+     */
+    public void createLongs(final long[] ids, final int offset, final int length) {
+
+        Objects.checkFromIndexSize(offset, length, ids.length);
+        if (length == 0) {
+            return;
+        }
+
+        final long first = nextState(length);
+        for (int i = 0; i < length; i++) {
+            ids[offset + i] = toNumber(first + i);
+        }
+    }
+
+    /**
+     * Reserves a range of TSID numbers in a single step and returns the first one.
+     * <p>
+     * The range holds {@code count} successive values of the counter, carried into
+     * the time on overflow: the numbers are the same as the ones filled by
+     * {@link #createLongs(long[], int, int)}, so they can be computed from the
+     * first one without being stored.
+     *
+     * @param count the amount of numbers, greater than zero
+     * @return the first number of the range
+     * @throws IllegalArgumentException if the count is not positive
+     */
+    public long createRange(final int count) {
+
+        if (count < 1) {
+            throw new IllegalArgumentException(String.format("Count must be positive: %s", count));
+        }
+
+        return toNumber(nextState(count));
+    }
+
+    /**
+     * Returns a snapshot of the clock drift metrics.
+     *
+     * @return {@link Metrics}
+     */
+    public Metrics getMetrics() {
+
+        final long time = timeFunction.getAsLong();
+        final long second = time / 1000;
+
+        final long window = overflowWindow.get();
+        final long windowSecond = window >>> 32;
+        final long overflowsPerSecond;
+        if (windowSecond == second) {
+            overflowsPerSecond = this.overflowsLastSecond;
+        } else if (windowSecond == second - 1) {
+            overflowsPerSecond = window & 0xffffffffL;
+        } else {
+            overflowsPerSecond = 0;
+        }
+
+        return new Metrics(
+                borrowedMillis.sum(),
+                overflowsPerSecond,
+                Math.max(0, (loadState() >>> this.counterBits) - time),
+                maxObservedDrift.get(),
+                waits.sum(),
+                failures.sum());
+    }
+
+    /**
+     * Reserves a block of state words.
+     * <p>
+     * In lock-free mode the state is updated with compare-and-set. Otherwise the
+     * callers are serialized by a {@link ReentrantLock}.
+     *
+     * @param count the amount of state words, greater than zero
+     * @return the first state of the block
+     */
+    private long nextState(final int count) {
+        return this.lockFree ? nextStateLockFree(count) : nextStateLocked(count);
+    }
+
+    private long nextStateLocked(final int count) {
+        for (; ; ) {
+            final long waitMillis;
+            lock.lock();
+            try {
+                final long prev = this.state;
+                final long time = timeFunction.getAsLong();
+                final long first = next(prev, time);
+                waitMillis = admit(first, time);
+                if (waitMillis == 0) {
+                    this.state = first + count - 1;
+                    record(prev, first + count - 1, time);
+                    return first;
+                }
+            } finally {
+                lock.unlock();
+            }
+            // wait without the lock, so that the other callers wait in parallel
+            await(waitMillis);
+        }
+    }
+
+    private long nextStateLockFree(final int count) {
+        for (; ; ) {
+            final long prev = loadState();
+            final long time = timeFunction.getAsLong();
+            final long first = next(prev, time);
+            final long waitMillis = admit(first, time);
+            if (waitMillis > 0) {
+                await(waitMillis);
+            } else if (compareAndSetState(prev, first + count - 1)) {
+                record(prev, first + count - 1, time);
+                return first;
+            }
+        }
+    }
+
+    private long loadState() {
+        return sharedState == null ? this.state : (long)SHARED_STATE.getVolatile(sharedState, 0);
+    }
+
+    private boolean compareAndSetState(final long prev, final long next) {
+        return sharedState == null
+                ? STATE.compareAndSet(this, prev, next)
+                : SHARED_STATE.compareAndSet(sharedState, 0, prev, next);
+    }
 
-        return new Tsid(_time | _node | _counter);
+    /**
+     * Records the node and the epoch of this factory in the shared state file, or
+     * checks that they are the ones recorded by another process.
+     * <p>
+     * The state word only holds the time and the counter, so factories with
+     * different nodes or node bits must not share it, and the time field of a TSID
+     * depends on the epoch, so neither must factories with different epochs. Each
+     * word is claimed with its own compare-and-set, so a mismatch of either one is
+     * detected whatever the order of the processes. A claim is never released: the
+     * file is bound to the node and the epoch of its first factory for its whole
+     * life.
+     *
+     * @throws IllegalArgumentException if the file is used by another node or epoch
+     */
+    private void claimSharedState() {
+        // never zero, so that an empty file is unclaimed
+        final long owner = 1L << 63 | (long)this.nodeBits << 32 | this.node;
+        final long witness = (long)SHARED_STATE.compareAndExchange(sharedState, Long.BYTES, 0L, owner);
+        if (witness != 0L && witness != owner) {
+            throw new IllegalArgumentException(String.format(
+                    "Shared state used by another node: node %s, node bits %s",
+                    witness & 0xffffffffL, (witness >>> 32) & 0x7fffffffL));
+        }
+        // never zero, the epoch being far from Long.MIN_VALUE
+        final long epoch = 1L << 63 ^ this.customEpoch;
+        final long epochWitness = (long)SHARED_STATE.compareAndExchange(sharedState, 2 * Long.BYTES, 0L, epoch);
+        if (epochWitness != 0L && epochWitness != epoch) {
+            throw new IllegalArgumentException(String.format(
+                    "Shared state used with another epoch: %s", Instant.ofEpochMilli(1L << 63 ^ epochWitness)));
+        }
     }
 
     /**
-     * Returns the current time.
+     * Checks that the time of a state is within the maximum drift.
+     * <p>
+     * Beyond the maximum drift, it either returns how long to wait for the clock
+     * to catch up before retrying, or fails, depending on the {@link DriftPolicy}.
+     *
+     * @param first the first state of a reservation
+     * @param time  the current time
+     * @return 0 if the state can be used, or the milliseconds to wait
+     * @throws IllegalStateException if the drift is exceeded and the policy is
+     *                               {@link DriftPolicy#FAIL_FAST}
+     */
+    private long admit(final long first, final long time) {
+
+        final long drift = (first >>> this.counterBits) - time;
+        if (drift <= this.maxDrift) {
+            return 0;
+        }
+
+        if (this.driftPolicy == DriftPolicy.FAIL_FAST) {
+            failures.increment();
+            throw new IllegalStateException(
+                    String.format("Clock drift out of range [0, %sms]: %sms", this.maxDrift, drift));
+        }
+        return drift - this.maxDrift;
+    }
+
+    /**
+     * Parks the current thread while the clock catches up. It must not hold the
+     * lock.
+     *
+     * @param millis the milliseconds to wait
+     * @throws IllegalStateException if the thread is interrupted
+     */
+    private void await(final long millis) {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new IllegalStateException("Interrupted while waiting for the clock to catch up");
+        }
+        waits.increment();
+        LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    /**
+     * Records the borrowed milliseconds and the drift of a reservation.
+     *
+     * @param prev the state before the reservation
+     * @param last the last state of the reservation
+     * @param time the current time
+     */
+    private void record(final long prev, final long last, final long time) {
+
+        final long lastTime = last >>> this.counterBits;
+
+        // every overflow of the counter carries one millisecond into the time
+        final long carries = lastTime - Math.max(prev >>> this.counterBits, time);
+        if (carries > 0) {
+            borrowedMillis.add(carries);
+            countOverflows(time, carries);
+        }
+
+        // a clock that stepped backward since the last reservation leaves the time
+        // ahead of it by the step. In lock-free mode, callers that read the clock
+        // on both sides of a millisecond tick may count one millisecond.
+        final long regression = lastClock.getAndSet(time) - time;
+        if (regression > 0) {
+            borrowedMillis.add(regression);
+        }
+
+        final long drift = lastTime - time;
+        if (drift > maxObservedDrift.get()) {
+            maxObservedDrift.accumulateAndGet(drift, Math::max);
+        }
+    }
+
+    private void countOverflows(final long time, final long carries) {
+        final long second = time / 1000;
+        for (; ; ) {
+            final long window = overflowWindow.get();
+            final long windowSecond = window >>> 32;
+            final long next = windowSecond == second ? window + carries : (second << 32) | carries;
+            if (overflowWindow.compareAndSet(window, next)) {
+                if (windowSecond != second) {
+                    this.overflowsLastSecond = windowSecond == second - 1 ? window & 0xffffffffL : 0;
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the state that follows the previous one.
      * <p>
      * If the current time is equal to the previous time, the counter is incremented
      * by one. Otherwise the counter is reset to a random value.
      * <p>
      * The maximum number of increment operations depend on the counter bits. For
      * example, if the counter bits is 12, the maximum number of increment
-     * operations is 2^12 = 4096.
+     * operations is 2^12 = 4096. An overflow of the counter carries into the time.
      *
-     * @return the current time
+     * @param prev the previous state
+     * @param time the current time
+     * @return the next state
      */
-    private synchronized long getTime() {
-
-        long time = timeFunction.getAsLong();
+    private long next(final long prev, final long time) {
 
-        if (time <= this.lastTime) {
-            this.counter++;
-            // Carry is 1 if an overflow occurs after ++.
-            int carry = this.counter >>> this.counterBits;
-            this.counter = this.counter & this.counterMask;
-            time = this.lastTime + carry; // increment time
-        } else {
-            // If the system clock has advanced as expected,
-            // simply reset the counter to a new random value.
-            this.counter = this.getRandomCounter();
+        if (time <= prev >>> this.counterBits) {
+            // Increment the counter. The carry is added to the time if an overflow
+            // occurs after ++.
+            return prev + 1;
         }
 
-        // save current time
-        this.lastTime = time;
+        // If the system clock has advanced as expected,
+        // simply reset the counter to a new random value.
+        return (time << this.counterBits) | this.getRandomCounter();
+    }
+
+    /**
+     * Converts a state word into a TSID number.
+     *
+     * @param state a state word
+     * @return a number
+     */
+    private long toNumber(final long state) {
 
         // adjust to the custom epoch
-        return time - this.customEpoch;
+        final long _time = ((state >>> this.counterBits) - this.customEpoch) << RANDOM_BITS;
+        final long _node = (long)this.node << this.counterBits;
+        final long _counter = state & this.counterMask;
+
+        return _time | _node | _counter;
     }
 
     /**
@@ -255,7 +616,7 @@ public final class TsidFactory {
      *
      * @return a number
      */
-    private synchronized int getRandomCounter() {
+    private int getRandomCounter() {
 
         if (random instanceof ByteRandom) {
 
@@ -273,6 +634,52 @@ public final class TsidFactory {
         }
     }
 
+    // ******************************
+    // Public inner classes
+    // ******************************
+
+    /**
+     * What to do when the time component would get ahead of the system clock by
+     * more than the maximum drift.
+     */
+    public enum DriftPolicy {
+
+        /**
+         * Park until the system clock catches up.
+         * <p>
+         * After a burst of counter overflows, the wait lasts a few milliseconds.
+         * After the system clock steps backward, e.g. an NTP correction, it lasts
+         * as long as the step minus the maximum drift, which can be seconds, and
+         * every caller is blocked for that long. Use {@link #FAIL_FAST} where that
+         * is not acceptable.
+         */
+        WAIT,
+
+        /**
+         * Throw an {@link IllegalStateException}.
+         */
+        FAIL_FAST
+
+    }
+
+    /**
+     * A snapshot of the clock drift metrics of a factory.
+     *
+     * @param borrowedMillis     the milliseconds borrowed from the future, one for
+     *                           every overflow of the counter, plus the size of
+     *                           every backward step of the system clock
+     * @param overflowsPerSecond the overflows of the counter in the last complete
+     *                           second
+     * @param currentDriftMillis how far the last time is ahead of the system clock
+     * @param maxDriftMillis     the highest drift observed
+     * @param waits              how many times a caller waited for the clock
+     * @param failures           how many times a caller failed fast
+     */
+    public record Metrics(long borrowedMillis, long overflowsPerSecond, long currentDriftMillis,
+                          long maxDriftMillis, long waits, long failures) {
+
+    }
+
     // ******************************
     // Package-private inner classes
     // ******************************
@@ -296,7 +703,12 @@ public final class TsidFactory {
         private Integer      nodeBits;
         private Long         customEpoch;
         private IRandom      random;
+        private Integer      randomPool;
         private LongSupplier timeFunction;
+        private Boolean      lockFree;
+        private DriftPolicy  driftPolicy;
+        private Duration     maxDrift;
+        private Path         sharedState;
 
         /**
          * Set the node identifier.
@@ -391,6 +803,25 @@ public final class TsidFactory {
             return this;
         }
 
+        /**
+         * Set the capacity of a pool of random values.
+         * <p>
+         * Without a pool, the random function is called every time the millisecond
+         * changes, which can block and is expensive with a {@link SecureRandom}. With
+         * a pool, the counter is reset with a value taken from a pre-filled pool by a
+         * lock-free cursor, and the next pool is filled in the background. The random
+         * function <b>must</b> then be thread-safe. Default: no pool.
+         *
+         * @param randomPool the number of values of a pool, between 1 and 2^20
+         * @return {@link Builder}
+         * @throws IllegalArgumentException if the capacity is out of the range [1,
+         *                                  2^20] when {@code build()} is invoked
+         */
+        public Builder withRandomPool(Integer randomPool) {
+            this.randomPool = randomPool;
+            return this;
+        }
+
         /**
          * Set the clock to be used in tests.
          * <p>
@@ -417,6 +848,80 @@ public final class TsidFactory {
             return this;
         }
 
+        /**
+         * Set the lock-free mode.
+         * <p>
+         * In lock-free mode the last time and the counter are packed into one state
+         * word that is updated with compare-and-set instead of a lock.
+         * The monotonicity and the carry into the time are the same as in the
+         * default mode.
+         * <p>
+         * The random function and the time function <b>must</b> be thread-safe in
+         * this mode, since they may be invoked by many callers at once.
+         *
+         * @param lockFree true to enable the lock-free mode
+         * @return {@link Builder}
+         */
+        public Builder withLockFree(Boolean lockFree) {
+            this.lockFree = lockFree;
+            return this;
+        }
+
+        /**
+         * Set how far the time component may get ahead of the system clock.
+         * <p>
+         * The time is borrowed from the future when the counter overflows or when
+         * the system clock goes backward. Up to this bound it is borrowed; beyond it
+         * the {@link DriftPolicy} applies. Default: unbounded, the time is always
+         * borrowed.
+         *
+         * @param maxDrift a duration that must not be negative
+         * @return {@link Builder}
+         * @throws IllegalArgumentException if the duration is negative when
+         *                                  {@code build()} is invoked
+         */
+        public Builder withMaxDrift(Duration maxDrift) {
+            this.maxDrift = maxDrift;
+            return this;
+        }
+
+        /**
+         * Set what to do when the maximum drift is exceeded. Default:
+         * {@link DriftPolicy#WAIT}. Callers wait without holding the lock, so
+         * that every waiting caller resumes when the clock catches up.
+         *
+         * @param driftPolicy a drift policy
+         * @return {@link Builder}
+         */
+        public Builder withDriftPolicy(DriftPolicy driftPolicy) {
+            this.driftPolicy = driftPolicy;
+            return this;
+        }
+
+        /**
+         * Set a file that holds the state shared by the factories of co-located
+         * processes.
+         * <p>
+         * The factories of every process must have the same node, node bits and
+         * custom epoch: the first factory binds the file to them for its whole
+         * life, and the file must be deleted to use other ones. The file is
+         * memory-mapped and its state word is updated with compare-and-set, which
+         * implies the lock-free mode. The processes then generate unique TSIDs
+         * under a single node identifier, sharing the {@code 2^counterBits} IDs/ms of
+         * the node. Default: not shared.
+         *
+         * @param sharedState a file on a local file system, created if missing
+         * @return {@link Builder}
+         * @throws IllegalArgumentException if the file is used by another node or
+         *                                  epoch when {@code build()} is invoked
+         * @throws UncheckedIOException     if the file cannot be mapped when
+         *                                  {@code build()} is invoked
+         */
+        public Builder withSharedState(Path sharedState) {
+            this.sharedState = sharedState;
+            return this;
+        }
+
         /**
          * Returns a build TSID factory.
          *
@@ -504,6 +1009,25 @@ public final class TsidFactory {
             return this.random;
         }
 
+        /**
+         * Gets the capacity of the pool of random values.
+         *
+         * @return a number, or null if the random values are not pooled
+         * @throws IllegalArgumentException if the capacity is out of range
+         */
+        protected Integer getRandomPool() {
+
+            if (this.randomPool == null) {
+                return null;
+            }
+
+            if (randomPool < 1 || randomPool > (1 << 20)) {
+                throw new IllegalArgumentException(String.format("Random pool out of range [1, 2^20]: %s", randomPool));
+            }
+
+            return this.randomPool;
+        }
+
         /**
          * Gets the time function to be used in tests.
          *
@@ -516,6 +1040,69 @@ public final class TsidFactory {
             return this.timeFunction;
         }
 
+        /**
+         * Gets the lock-free mode.
+         *
+         * @return true if the lock-free mode is enabled
+         */
+        protected Boolean getLockFree() {
+            if (this.lockFree == null) {
+                this.lockFree = false;
+            }
+            return this.lockFree;
+        }
+
+        /**
+         * Gets the drift policy.
+         *
+         * @return a drift policy
+         */
+        protected DriftPolicy getDriftPolicy() {
+            if (this.driftPolicy == null) {
+                this.driftPolicy = DriftPolicy.WAIT;
+            }
+            return this.driftPolicy;
+        }
+
+        /**
+         * Gets the maximum drift in milliseconds.
+         *
+         * @return a number, {@link Long#MAX_VALUE} if unbounded
+         * @throws IllegalArgumentException if the maximum drift is negative
+         */
+        protected Long getMaxDrift() {
+
+            if (this.maxDrift == null) {
+                return Long.MAX_VALUE;
+            }
+
+            if (maxDrift.isNegative()) {
+                throw new IllegalArgumentException(String.format("Max drift must not be negative: %s", maxDrift));
+            }
+
+            return this.maxDrift.toMillis();
+        }
+
+        /**
+         * Maps the shared state file.
+         *
+         * @return a buffer, or null if the state is not shared
+         * @throws UncheckedIOException if the file cannot be mapped
+         */
+        protected MappedByteBuffer getSharedState() {
+
+            if (this.sharedState == null) {
+                return null;
+            }
+
+            try (FileChannel channel = FileChannel.open(this.sharedState,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                return channel.map(FileChannel.MapMode.READ_WRITE, 0, SHARED_STATE_BYTES);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
     }
 
     static class IntRandom implements IRandom {
@@ -607,6 +1194,119 @@ public final class TsidFactory {
 
     }
 
+    /**
+     * A random generator that hands out the values of a pre-filled pool.
+     * <p>
+     * The values are taken with a lock-free cursor. When a pool is used up, it is
+     * replaced by the next pool, which has been filled in the background. Only if
+     * the next pool is not ready yet, the source is called by the caller.
+     */
+    static class PooledRandom implements IRandom {
+
+        private static final Executor      REFILL_EXECUTOR = new ThreadPoolExecutor(0, 1, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            final Thread thread = new Thread(runnable, "tsid-random-pool");
+            thread.setDaemon(true);
+            return thread;
+        });
+        private static final VarHandle     NEXT;
+        private final        IRandom       source;
+        private final        int           capacity;
+        private final        Executor      executor;
+        private final        AtomicBoolean refilling       = new AtomicBoolean();
+        private volatile     Pool          current;
+        private volatile     Pool          next;
+
+        static {
+            try {
+                NEXT = MethodHandles.lookup().findVarHandle(PooledRandom.class, "next", Pool.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        public PooledRandom(IRandom source, int capacity) {
+            this(source, capacity, REFILL_EXECUTOR);
+        }
+
+        public PooledRandom(IRandom source, int capacity, Executor executor) {
+            this.source = source;
+            this.capacity = capacity;
+            this.executor = executor;
+            this.current = new Pool(fill());
+            refill();
+        }
+
+        @Override
+        public int nextInt() {
+            for (; ; ) {
+                final Pool pool = this.current;
+                final long index = pool.cursor.getAndIncrement();
+                if (index < pool.values.length) {
+                    return pool.values[(int)index];
+                }
+
+                final Pool ready = this.next;
+                if (ready == null) {
+                    // the next pool is late: do not wait for it
+                    refill();
+                    return source.nextInt();
+                }
+                if (NEXT.compareAndSet(this, ready, null)) {
+                    this.current = ready;
+                    refill();
+                }
+            }
+        }
+
+        @Override
+        public byte[] nextBytes(int length) {
+
+            int random = 0;
+            final byte[] bytes = new byte[length];
+
+            for (int i = 0; i < length; i++) {
+                if (i % Integer.BYTES == 0) {
+                    random = nextInt();
+                }
+                bytes[i] = (byte)(random >>> (Integer.SIZE - Byte.SIZE * (1 + i % Integer.BYTES)));
+            }
+
+            return bytes;
+        }
+
+        private void refill() {
+            if (refilling.compareAndSet(false, true)) {
+                try {
+                    executor.execute(() -> {
+                        try {
+                            this.next = new Pool(fill());
+                        } finally {
+                            refilling.set(false);
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    refilling.set(false);
+                }
+            }
+        }
+
+        private int[] fill() {
+            final int[] values = new int[capacity];
+            ByteBuffer.wrap(source.nextBytes(capacity * Integer.BYTES)).asIntBuffer().get(values);
+            return values;
+        }
+
+        private record Pool(int[] values, AtomicLong cursor) {
+
+            Pool(int[] values) {
+                this(values, new AtomicLong());
+            }
+
+        }
+
+    }
+
     static class Settings {
 
         static final String NODE       = "tsidcreator.node";
@@ -0,0 +1,111 @@
+package io.glory.core.util.datetime
+
+import java.time.Clock
+import java.time.Instant
+import java.time.ZoneId
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.locks.LockSupport
+import java.util.function.LongSupplier
+
+/**
+ * Coarse millisecond clock
+ * <p>A daemon thread samples [System.currentTimeMillis] every [TICK_MS] and publishes it in one volatile field,
+ * so reading the time costs a single volatile read. The thread is started on first use.
+ *
+ * <p>Precision and staleness:
+ * <ul>
+ *   <li>the value has a millisecond resolution and follows the wall clock, including its steps</li>
+ *   <li>the value is behind the wall clock by at most [TICK_MS] plus the scheduling delay of the ticker thread,
+ *   typically 1~2ms and below [MAX_STALENESS_MS] on a busy host. When every CPU is saturated, the delay can grow
+ *   to a time slice of the OS scheduler</li>
+ *   <li>the value is constant within a tick, so it may go backward only when the wall clock steps backward</li>
+ * </ul>
+ * Use it where a millisecond that may be slightly late is good enough: timestamps of responses, elapsed times in
+ * logs, the time function of a TSID factory. Do not use it to measure durations shorter than a few milliseconds.
+ *
+ * <p>It plugs into `TsidFactory.Builder.withTimeFunction(CoarseClock)` as a [LongSupplier], and into the java.time
+ * API as a [Clock], for example `LocalDateTime.now(CoarseClock.systemDefaultZone())`.
+ */
+object CoarseClock : LongSupplier {
+
+    const val TICK_MS = 1L
+    const val MAX_STALENESS_MS = 50L
+
+    private val ticker = Ticker(System::currentTimeMillis)
+
+    private val systemDefaultZone: Clock = CachedClock(ZoneId.systemDefault())
+
+    private val now: Long
+        get() = ticker.millis
+
+    init {
+        Thread.ofPlatform()
+            .name("coarse-clock")
+            .daemon()
+            .start {
+                val tickNanos = TimeUnit.MILLISECONDS.toNanos(TICK_MS)
+                while (true) {
+                    ticker.tick()
+                    LockSupport.parkNanos(tickNanos)
+                }
+            }
+    }
+
+    /**
+     * @return the current time in milliseconds since 1970-01-01T00:00Z (UTC), see [CoarseClock] for its precision
+     */
+    @JvmStatic
+    fun millis(): Long = now
+
+    override fun getAsLong(): Long = now
+
+    /**
+     * @return [Instant] of the current time
+     */
+    @JvmStatic
+    fun instant(): Instant = Instant.ofEpochMilli(now)
+
+    /**
+     * @return [Clock] backed by this clock in the system default zone at the time this clock was started
+     */
+    @JvmStatic
+    fun systemDefaultZone(): Clock = systemDefaultZone
+
+    /**
+     * @return [Clock] backed by this clock in the given [zone]
+     */
+    @JvmStatic
+    fun clock(zone: ZoneId): Clock = CachedClock(zone)
+
+    /**
+     * Publishes the time of a [timeSource] sampled on each [tick]
+     */
+    internal class Ticker(private val timeSource: LongSupplier) {
+
+        @Volatile
+        var millis: Long = timeSource.asLong
+            private set
+
+        fun tick() {
+            millis = timeSource.asLong
+        }
+    }
+
+    private class CachedClock(private val zone: ZoneId) : Clock() {
+
+        override fun getZone(): ZoneId = zone
+
+        override fun withZone(zone: ZoneId): Clock = if (zone == this.zone) this else CachedClock(zone)
+
+        override fun millis(): Long = now
+
+        override fun instant(): Instant = Instant.ofEpochMilli(now)
+
+        override fun equals(other: Any?): Boolean = other is CachedClock && zone == other.zone
+
+        override fun hashCode(): Int = zone.hashCode() + 1
+
+        override fun toString(): String = "CoarseClock[$zone]"
+    }
+
+}
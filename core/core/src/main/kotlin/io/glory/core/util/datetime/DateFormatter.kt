@@ -4,7 +4,17 @@ import java.time.LocalDate
 import java.time.LocalDateTime
 import java.time.LocalTime
 import java.time.format.DateTimeFormatter
+import java.util.concurrent.ConcurrentHashMap
 
+/**
+ * Converts dates and times from and to strings
+ * <p>The formatters of the built-in patterns are compiled once, see [DATE_FORMATTER] and the other constants.
+ * The formatters of other patterns are compiled on first use and cached, up to [MAX_CACHED_PATTERNS] patterns;
+ * beyond that, a new formatter is compiled for each call. Formatters are immutable and thread-safe, so the
+ * conversions can run concurrently.
+ *
+ * <p>The formatters use the default locale at the time they are compiled.
+ */
 object DateFormatter {
 
     const val TIME_FORMAT = "HH:mm:ss"
@@ -19,14 +29,71 @@ object DateFormatter {
     const val KOREAN_DATE_FORMAT = "yyyy년 M월 d일"
     const val KOREAN_DATE_TIME_FORMAT = "yyyy년 M월 d일 H시 m분"
 
+    const val MAX_CACHED_PATTERNS = 256
+
+    @JvmField
+    val TIME_FORMATTER: DateTimeFormatter = DateTimeFormatter.ofPattern(TIME_FORMAT)
+
+    @JvmField
+    val DATE_FORMATTER: DateTimeFormatter = DateTimeFormatter.ofPattern(DATE_FORMAT)
+
+    @JvmField
+    val DATE_TIME_FORMATTER: DateTimeFormatter = DateTimeFormatter.ofPattern(DATE_TIME_FORMAT)
+
+    @JvmField
+    val NUMERIC_TIME_FORMATTER: DateTimeFormatter = DateTimeFormatter.ofPattern(NUMERIC_TIME_FORMAT)
+
+    @JvmField
+    val NUMERIC_DATE_FORMATTER: DateTimeFormatter = DateTimeFormatter.ofPattern(NUMERIC_DATE_FORMAT)
+
+    @JvmField
+    val NUMERIC_DATE_TIME_FORMATTER: DateTimeFormatter = DateTimeFormatter.ofPattern(NUMERIC_DATE_TIME_FORMAT)
+
+    @JvmField
+    val KOREAN_TIME_FORMATTER: DateTimeFormatter = DateTimeFormatter.ofPattern(KOREAN_TIME_FORMAT)
+
+    @JvmField
+    val KOREAN_DATE_FORMATTER: DateTimeFormatter = DateTimeFormatter.ofPattern(KOREAN_DATE_FORMAT)
+
+    @JvmField
+    val KOREAN_DATE_TIME_FORMATTER: DateTimeFormatter = DateTimeFormatter.ofPattern(KOREAN_DATE_TIME_FORMAT)
+
+    private val builtIn: Map<String, DateTimeFormatter> = mapOf(
+        TIME_FORMAT to TIME_FORMATTER,
+        DATE_FORMAT to DATE_FORMATTER,
+        DATE_TIME_FORMAT to DATE_TIME_FORMATTER,
+        NUMERIC_TIME_FORMAT to NUMERIC_TIME_FORMATTER,
+        NUMERIC_DATE_FORMAT to NUMERIC_DATE_FORMATTER,
+        NUMERIC_DATE_TIME_FORMAT to NUMERIC_DATE_TIME_FORMATTER,
+        KOREAN_TIME_FORMAT to KOREAN_TIME_FORMATTER,
+        KOREAN_DATE_FORMAT to KOREAN_DATE_FORMATTER,
+        KOREAN_DATE_TIME_FORMAT to KOREAN_DATE_TIME_FORMATTER,
+    )
+
+    private val cache = ConcurrentHashMap<String, DateTimeFormatter>()
+
+    /**
+     * @return the formatter of the provided [pattern], compiled once per pattern up to [MAX_CACHED_PATTERNS] patterns
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
+    @JvmStatic
+    fun formatter(pattern: String): DateTimeFormatter {
+        builtIn[pattern]?.let { return it }
+        cache[pattern]?.let { return it }
+        val formatter = DateTimeFormatter.ofPattern(pattern)
+        if (cache.size < MAX_CACHED_PATTERNS) {
+            cache.putIfAbsent(pattern, formatter)?.let { return it }
+        }
+        return formatter
+    }
+
     /**
      * @return [LocalTime] from the provided time string and [format]
      */
     @JvmStatic
     @JvmOverloads
     fun String.toTime(format: String = TIME_FORMAT): LocalTime {
-        val formatter = DateTimeFormatter.ofPattern(format)
-        return LocalTime.parse(this, formatter)
+        return LocalTime.parse(this, formatter(format))
     }
 
     /**
@@ -35,8 +102,7 @@ object DateFormatter {
     @JvmStatic
     @JvmOverloads
     fun String.toDate(format: String = DATE_FORMAT): LocalDate {
-        val formatter = DateTimeFormatter.ofPattern(format)
-        return LocalDate.parse(this, formatter)
+        return LocalDate.parse(this, formatter(format))
     }
 
     /**
@@ -45,8 +111,7 @@ object DateFormatter {
     @JvmStatic
     @JvmOverloads
     fun String.toDateTime(format: String = DATE_TIME_FORMAT): LocalDateTime {
-        val formatter = DateTimeFormatter.ofPattern(format)
-        return LocalDateTime.parse(this, formatter)
+        return LocalDateTime.parse(this, formatter(format))
     }
 
     /**
@@ -55,7 +120,7 @@ object DateFormatter {
     @JvmStatic
     @JvmOverloads
     fun LocalTime.toStr(format: String = TIME_FORMAT): String {
-        return this.format(DateTimeFormatter.ofPattern(format))
+        return this.format(formatter(format))
     }
 
     /**
@@ -64,7 +129,7 @@ object DateFormatter {
     @JvmStatic
     @JvmOverloads
     fun LocalDate.toStr(format: String = DATE_FORMAT): String {
-        return this.format(DateTimeFormatter.ofPattern(format))
+        return this.format(formatter(format))
     }
 
     /**
@@ -73,7 +138,7 @@ object DateFormatter {
     @JvmStatic
     @JvmOverloads
     fun LocalDateTime.toStr(format: String = DATE_TIME_FORMAT): String {
-        return this.format(DateTimeFormatter.ofPattern(format))
+        return this.format(formatter(format))
     }
 
     /**
@@ -81,7 +146,7 @@ object DateFormatter {
      */
     @JvmStatic
     fun LocalTime.toKorean(): String {
-        return this.toStr(KOREAN_TIME_FORMAT)
+        return this.format(KOREAN_TIME_FORMATTER)
     }
 
     /**
@@ -89,7 +154,7 @@ object DateFormatter {
      */
     @JvmStatic
     fun LocalDate.toKorean(): String {
-        return this.toStr(KOREAN_DATE_FORMAT)
+        return this.format(KOREAN_DATE_FORMATTER)
     }
 
     /**
@@ -97,7 +162,7 @@ object DateFormatter {
      */
     @JvmStatic
     fun LocalDateTime.toKorean(): String {
-        return this.toStr(KOREAN_DATE_TIME_FORMAT)
+        return this.format(KOREAN_DATE_TIME_FORMATTER)
     }
 
 }
@@ -0,0 +1,72 @@
+package io.glory.core.util.idgenerator
+
+import java.nio.ByteBuffer
+
+/**
+ * Block of ids reserved in a single step, see [IdGenerator.reserve]
+ *
+ * The ids are [size] successive values of the counter from [first]: when the counter overflows, it carries into the
+ * time, above the node bits. So the block is sent as these three numbers, and its ids are minted with [get].
+ * ```
+ * | time (42) | node (22 - counterBits) | counter (counterBits) |
+ * ```
+ *
+ * @param first the first id
+ * @param size the number of ids
+ * @param counterBits the number of bits of the counter
+ */
+@JvmRecord
+data class IdBlock(
+    val first: Long,
+    val size: Int,
+    val counterBits: Int
+) {
+
+    init {
+        require(size > 0) {
+            "Size must be positive: $size"
+        }
+        require(counterBits in 0..TsidLayout.RANDOM_BITS) {
+            "Counter bits out of range [0, ${TsidLayout.RANDOM_BITS}]: $counterBits"
+        }
+    }
+
+    /**
+     * the last id of the block
+     */
+    val last: Long
+        get() = get(size - 1)
+
+    /**
+     * @return the id at [index] of the block
+     * @throws IndexOutOfBoundsException if [index] is out of [0, size)
+     */
+    operator fun get(index: Int): Long {
+        if (index < 0 || index >= size) {
+            throw IndexOutOfBoundsException("Index out of range [0, $size): $index")
+        }
+        val counterMask = (1L shl counterBits) - 1
+        val node = first and ((1L shl TsidLayout.RANDOM_BITS) - 1) and counterMask.inv()
+        val state = ((first ushr TsidLayout.RANDOM_BITS) shl counterBits or (first and counterMask)) + index
+        return ((state ushr counterBits) shl TsidLayout.RANDOM_BITS) or node or (state and counterMask)
+    }
+
+    /**
+     * @return the ids of the block
+     */
+    fun toLongArray(): LongArray {
+        return LongArray(size) { get(it) }
+    }
+
+    /**
+     * @return the ids of the block as big-endian 64bit numbers
+     */
+    fun toByteArray(): ByteArray {
+        val buffer = ByteBuffer.allocate(size * Long.SIZE_BYTES)
+        for (index in 0 until size) {
+            buffer.putLong(get(index))
+        }
+        return buffer.array()
+    }
+
+}
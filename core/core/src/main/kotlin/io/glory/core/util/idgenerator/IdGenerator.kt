@@ -1,7 +1,36 @@
 package io.glory.core.util.idgenerator
 
+import java.util.Objects
+
 interface IdGenerator {
 
     fun generate(): Long
 
-}
\ No newline at end of file
+    /**
+     * Fills [ids] from [offset] with [length] new ids, reserved in a single step
+     *
+     * The default implementation calls [generate] for each id, implementations override it to reserve the ids at once
+     *
+     * @throws IndexOutOfBoundsException if the range is out of the array bounds
+     */
+    fun generate(ids: LongArray, offset: Int, length: Int) {
+        Objects.checkFromIndexSize(offset, length, ids.size)
+        for (i in offset until offset + length) {
+            ids[i] = generate()
+        }
+    }
+
+    /**
+     * Reserves a block of [size] new ids in a single step, without generating them
+     *
+     * The ids of an [IdBlock] are successive values of a counter, so the default implementation cannot build one from
+     * [generate] and throws [UnsupportedOperationException]
+     *
+     * @throws IllegalArgumentException if [size] is not positive
+     * @throws UnsupportedOperationException if the generator does not reserve contiguous ids
+     */
+    fun reserve(size: Int): IdBlock {
+        throw UnsupportedOperationException("${javaClass.name} does not reserve contiguous ids")
+    }
+
+}
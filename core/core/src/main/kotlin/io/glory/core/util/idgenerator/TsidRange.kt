@@ -0,0 +1,76 @@
+package io.glory.core.util.idgenerator
+
+import io.glory.core.util.datetime.LocalDateTimeRange
+import io.glory.core.util.datetime.SearchDates
+import java.time.Instant
+import java.time.ZoneId
+
+/**
+ * Range of the TSIDs generated between two times, with the epoch of [TsidGenerator]
+ *
+ * The time is in the high bits of a TSID whatever its [TsidLayout], so the rows created between two times can be
+ * queried as a primary-key range scan instead of through an index on a creation time column.
+ * ```
+ * val range = TsidRange.from(LocalDateTimeRange(start, end))
+ * repository.findByIdBetween(range.min, range.max)
+ * ```
+ * The precision is the millisecond: every id of the milliseconds of the bounds is included.
+ *
+ * @param min the lowest id, inclusive
+ * @param max the highest id, inclusive
+ */
+@JvmRecord
+data class TsidRange(
+    val min: Long,
+    val max: Long
+) {
+
+    init {
+        require(min <= max) {
+            "min must not be greater than max, min: $min , max: $max"
+        }
+    }
+
+    companion object {
+        /**
+         * @return a [TsidRange] of the ids generated from [start] to [end], both included
+         */
+        @JvmStatic
+        fun from(start: Instant, end: Instant): TsidRange {
+            require(!start.isAfter(end)) {
+                "start must be before end, start: $start , end: $end"
+            }
+            return TsidRange(TsidLayout.minId(start.toEpochMilli()), TsidLayout.maxId(end.toEpochMilli()))
+        }
+
+        /**
+         * @return a [TsidRange] of the ids generated within [range], the start and end datetime included
+         */
+        @JvmStatic
+        @JvmOverloads
+        fun from(range: LocalDateTimeRange, zone: ZoneId = ZoneId.systemDefault()): TsidRange {
+            return from(range.start.atZone(zone).toInstant(), range.end.atZone(zone).toInstant())
+        }
+
+        /**
+         * @return a [TsidRange] of the ids generated from the start of [SearchDates.startDate] to the end of
+         * [SearchDates.endDate]
+         */
+        @JvmStatic
+        @JvmOverloads
+        fun from(searchDates: SearchDates, zone: ZoneId = ZoneId.systemDefault()): TsidRange {
+            val start = searchDates.startDate.atStartOfDay(zone).toInstant()
+            val end = searchDates.endDate.plusDays(1).atStartOfDay(zone).toInstant().minusMillis(1)
+            return from(start, end)
+        }
+    }
+
+    /**
+     * @return true if the specified [id] is within the range.
+     * The min and max ids are included.
+     */
+    fun contains(id: Long): Boolean {
+        return id in min..max
+    }
+
+}
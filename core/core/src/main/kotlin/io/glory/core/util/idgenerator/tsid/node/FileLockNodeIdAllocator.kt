@@ -0,0 +1,107 @@
+package io.glory.core.util.idgenerator.tsid.node
+
+import java.io.IOException
+import java.io.UncheckedIOException
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.channels.FileLock
+import java.nio.channels.OverlappingFileLockException
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+import java.time.Instant
+import java.util.concurrent.ThreadLocalRandom
+
+/**
+ * [NodeIdAllocator] backed by file locks in a shared directory
+ * <p>Every node ID has a lock file `node-<id>.lock`, and a node ID is leased while its file is locked. The lock is
+ * released by the OS when the process exits, even if it crashes, so node IDs never leak.
+ *
+ * <p>The search starts at a random node ID, so replicas starting together rarely compete for the same file. Renewing
+ * the lease checks that the lock is still held and writes a heartbeat with the process ID and the time into the file.
+ *
+ * <p>The directory must be shared by every generator, for example a volume mounted by every pod. File locks are
+ * advisory and are not reliable on every network file system: prefer a local or block volume, or implement
+ * [NodeIdAllocator] with a coordination service.
+ *
+ * @param directory directory of the lock files, created if missing
+ */
+class FileLockNodeIdAllocator(
+    private val directory: Path
+) : NodeIdAllocator {
+
+    override fun lease(nodeBits: Int): NodeLease {
+        require(nodeBits in 0..MAX_NODE_BITS) { "Node bits out of range [0, $MAX_NODE_BITS]: $nodeBits" }
+        try {
+            Files.createDirectories(directory)
+        } catch (e: IOException) {
+            throw UncheckedIOException(e)
+        }
+
+        val nodes = 1 shl nodeBits
+        val start = ThreadLocalRandom.current().nextInt(nodes)
+        for (i in 0 until nodes) {
+            val node = (start + i) and (nodes - 1)
+            tryLease(node)?.let { return it }
+        }
+        throw IllegalStateException("Every node ID is leased: $nodes nodes in $directory")
+    }
+
+    private fun tryLease(node: Int): NodeLease? {
+        val path = directory.resolve("node-%04d.lock".format(node))
+        val channel = try {
+            FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)
+        } catch (e: IOException) {
+            throw UncheckedIOException(e)
+        }
+        val lock = try {
+            channel.tryLock()
+        } catch (e: OverlappingFileLockException) {
+            null // leased in this JVM
+        } catch (e: IOException) {
+            channel.close()
+            throw UncheckedIOException(e)
+        }
+        if (lock == null) {
+            channel.close()
+            return null
+        }
+        return FileNodeLease(node, channel, lock).also { it.renew() }
+    }
+
+    private class FileNodeLease(
+        override val node: Int,
+        private val channel: FileChannel,
+        private val lock: FileLock
+    ) : NodeLease {
+
+        override fun renew(): Boolean {
+            if (!lock.isValid) {
+                return false
+            }
+            return try {
+                val heartbeat = "${ProcessHandle.current().pid()} ${Instant.now()}\n"
+                channel.truncate(0)
+                channel.write(ByteBuffer.wrap(heartbeat.toByteArray(StandardCharsets.UTF_8)), 0)
+                channel.force(false)
+                lock.isValid
+            } catch (e: IOException) {
+                false
+            }
+        }
+
+        override fun close() {
+            // closing the channel releases the lock, and closing it again has no effect
+            channel.close()
+        }
+
+        override fun toString(): String = "FileNodeLease(node=$node)"
+
+    }
+
+    companion object {
+        const val MAX_NODE_BITS = 20
+    }
+
+}
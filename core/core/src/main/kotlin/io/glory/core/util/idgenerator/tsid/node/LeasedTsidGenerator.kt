@@ -0,0 +1,40 @@
+package io.glory.core.util.idgenerator.tsid.node
+
+import io.glory.core.util.idgenerator.IdBlock
+import io.glory.core.util.idgenerator.TsidGenerator
+import io.glory.core.util.idgenerator.TsidLayout
+
+/**
+ * [TsidGenerator] with the node ID leased by a [NodeLeaseKeeper]
+ * <p>Once the lease is lost, every call fails with [IllegalStateException]: another generator may lease the node ID,
+ * so the IDs would no longer be unique. The keeper does not take a new lease, so IDs can be generated again only
+ * with a new keeper and generator, for example by restarting the application.
+ *
+ * @param keeper keeper of the node lease, closed after this generator
+ * @param layout bit layout of the IDs, whose node bits must be the ones of the lease
+ */
+class LeasedTsidGenerator @JvmOverloads constructor(
+    private val keeper: NodeLeaseKeeper,
+    layout: TsidLayout = TsidLayout.DEFAULT
+) : TsidGenerator(layout.worker(keeper.node), layout.process(keeper.node), layout) {
+
+    override fun generate(): Long {
+        checkLease()
+        return super.generate()
+    }
+
+    override fun generate(ids: LongArray, offset: Int, length: Int) {
+        checkLease()
+        super.generate(ids, offset, length)
+    }
+
+    override fun reserve(size: Int): IdBlock {
+        checkLease()
+        return super.reserve(size)
+    }
+
+    private fun checkLease() {
+        check(keeper.isValid) { "Node lease lost, node ${keeper.node} may be used by another generator" }
+    }
+
+}
@@ -0,0 +1,48 @@
+package io.glory.core.util.idgenerator.tsid.node
+
+/**
+ * Node ID allocator
+ * <p>Leases a node ID that no other running generator holds, instead of assigning [WorkerNode]/[ProcessNode] by
+ * hand. The lease must be renewed while the node ID is in use, see [NodeLeaseKeeper], and released at shutdown.
+ *
+ * <p>The node ID is split into a worker and a process ID by
+ * [TsidLayout.worker][io.glory.core.util.idgenerator.TsidLayout.worker] and
+ * [TsidLayout.process][io.glory.core.util.idgenerator.TsidLayout.process].
+ *
+ * @see FileLockNodeIdAllocator
+ */
+interface NodeIdAllocator {
+
+    /**
+     * Leases a free node ID
+     *
+     * @param nodeBits number of bits of the node ID, the node ID is between 0 and 2^nodeBits-1
+     * @throws IllegalStateException if every node ID is leased
+     */
+    fun lease(nodeBits: Int): NodeLease
+
+}
+
+/**
+ * Lease of a node ID
+ */
+interface NodeLease : AutoCloseable {
+
+    /**
+     * Leased node ID
+     */
+    val node: Int
+
+    /**
+     * Extends the lease
+     *
+     * @return false if the lease is lost and the node ID may be used by another generator
+     */
+    fun renew(): Boolean
+
+    /**
+     * Releases the node ID
+     */
+    override fun close()
+
+}
@@ -0,0 +1,69 @@
+package io.glory.core.util.idgenerator.tsid.node
+
+import io.github.oshai.kotlinlogging.KotlinLogging
+import java.time.Duration
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+private val logger = KotlinLogging.logger {}
+
+/**
+ * Keeps a [NodeLease] alive
+ * <p>Renews the lease in a daemon thread every [renewInterval] until [close], which releases it. When a renewal
+ * fails, [isValid] turns false, [onLost] is called once and the lease is no longer renewed: the node ID may be used by
+ * another generator, so the application must stop generating IDs with it, see [LeasedTsidGenerator].
+ *
+ * @param lease lease to keep alive
+ * @param renewInterval interval between two renewals
+ * @param onLost called in the renewal thread when the lease is lost, logs an error by default
+ */
+class NodeLeaseKeeper @JvmOverloads constructor(
+    private val lease: NodeLease,
+    renewInterval: Duration,
+    private val onLost: (NodeLease) -> Unit = { logger.error { "# ==> Node lease lost: $it" } }
+) : AutoCloseable {
+
+    private val executor = Executors.newSingleThreadScheduledExecutor(
+        Thread.ofPlatform().name("node-lease-keeper").daemon().factory()
+    )
+
+    @Volatile
+    var isValid: Boolean = true
+        private set
+
+    /**
+     * Leased node ID
+     */
+    val node: Int
+        get() = lease.node
+
+    init {
+        require(!renewInterval.isNegative && !renewInterval.isZero) { "Renew interval must be positive: $renewInterval" }
+        val millis = renewInterval.toMillis().coerceAtLeast(1)
+        executor.scheduleWithFixedDelay(::renew, millis, millis, TimeUnit.MILLISECONDS)
+    }
+
+    private fun renew() {
+        val renewed = try {
+            lease.renew()
+        } catch (e: RuntimeException) {
+            logger.warn(e) { "# ==> Node lease renewal failed: $lease" }
+            false
+        }
+        if (!renewed && isValid) {
+            isValid = false
+            executor.shutdown()
+            onLost(lease)
+        }
+    }
+
+    /**
+     * Stops renewing and releases the lease
+     */
+    override fun close() {
+        executor.shutdownNow()
+        isValid = false
+        lease.close()
+    }
+
+}
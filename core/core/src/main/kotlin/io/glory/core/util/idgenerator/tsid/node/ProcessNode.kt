@@ -42,5 +42,26 @@ enum class ProcessNode(
         fun from(id: Long): ProcessNode {
             return entries.firstOrNull { it.id == id } ?: INVALID
         }
+
+        /**
+         * Returns the node of an identifier with the given width, see [io.glory.core.util.idgenerator.TsidLayout]
+         *
+         * @param id the process identifier
+         * @param bits the number of process bits of the layout
+         * @return [INVALID] if the identifier is out of [range]
+         */
+        fun from(id: Long, bits: Int): ProcessNode {
+            return if (id in range(bits)) from(id) else INVALID
+        }
+
+        /**
+         * Returns the identifiers allowed by a layout with the given width, capped by the entries of this enum
+         *
+         * @param bits the number of process bits of the layout
+         */
+        fun range(bits: Int): LongRange {
+            require(bits in 0..20) { "Process bits out of range [0, 20]: $bits" }
+            return 0L..minOf((1L shl bits) - 1, entries.size - 2L)
+        }
     }
 }
@@ -42,5 +42,26 @@ enum class WorkerNode(
         fun from(id: Long): WorkerNode {
             return entries.firstOrNull { it.id == id } ?: INVALID
         }
+
+        /**
+         * Returns the node of an identifier with the given width, see [io.glory.core.util.idgenerator.TsidLayout]
+         *
+         * @param id the worker identifier
+         * @param bits the number of worker bits of the layout
+         * @return [INVALID] if the identifier is out of [range]
+         */
+        fun from(id: Long, bits: Int): WorkerNode {
+            return if (id in range(bits)) from(id) else INVALID
+        }
+
+        /**
+         * Returns the identifiers allowed by a layout with the given width, capped by the entries of this enum
+         *
+         * @param bits the number of worker bits of the layout
+         */
+        fun range(bits: Int): LongRange {
+            require(bits in 0..20) { "Worker bits out of range [0, 20]: $bits" }
+            return 0L..minOf((1L shl bits) - 1, entries.size - 2L)
+        }
     }
 }
@@ -0,0 +1,73 @@
+package io.glory.core.util.datetime
+
+import io.glory.core.util.idgenerator.tsid.TsidFactory
+import org.assertj.core.api.Assertions.assertThat
+import java.time.LocalDateTime
+import java.time.ZoneOffset
+import java.util.concurrent.atomic.AtomicLong
+import kotlin.test.Test
+
+class CoarseClockTest {
+
+    @Test
+    fun `ticker publishes the time of the last tick`() {
+        // given
+        val time = AtomicLong(1_000)
+        val ticker = CoarseClock.Ticker(time::get)
+
+        // when: the time source moves between two ticks
+        time.set(1_005)
+
+        // then
+        assertThat(ticker.millis).isEqualTo(1_000L)
+        ticker.tick()
+        assertThat(ticker.millis).isEqualTo(1_005L)
+    }
+
+    @Test
+    fun `ticker follows a backward step of the time source`() {
+        // given
+        val time = AtomicLong(1_000)
+        val ticker = CoarseClock.Ticker(time::get)
+
+        // when
+        time.set(900)
+        ticker.tick()
+
+        // then
+        assertThat(ticker.millis).isEqualTo(900L)
+    }
+
+    @Test
+    fun `millis is not ahead of the system clock and advances`() {
+        val start = CoarseClock.millis()
+        assertThat(start).isLessThanOrEqualTo(System.currentTimeMillis())
+
+        val deadline = System.currentTimeMillis() + 5_000
+        while (CoarseClock.millis() == start && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1)
+        }
+        assertThat(CoarseClock.millis()).isGreaterThan(start)
+    }
+
+    @Test
+    fun `java time clock`() {
+        val clock = CoarseClock.clock(ZoneOffset.UTC)
+        val now = LocalDateTime.now(clock)
+
+        assertThat(clock.millis()).isLessThanOrEqualTo(System.currentTimeMillis())
+        assertThat(now.toInstant(ZoneOffset.UTC).toEpochMilli()).isLessThanOrEqualTo(System.currentTimeMillis())
+        assertThat(clock.withZone(ZoneOffset.UTC)).isEqualTo(clock)
+        assertThat(LocalDateTime.now(CoarseClock.systemDefaultZone())).isNotNull()
+    }
+
+    @Test
+    fun `time function of tsid factory`() {
+        val factory = TsidFactory.builder().withTimeFunction(CoarseClock).build()
+
+        val tsid = factory.create()
+
+        assertThat(tsid.unixMilliseconds).isLessThanOrEqualTo(System.currentTimeMillis())
+    }
+
+}
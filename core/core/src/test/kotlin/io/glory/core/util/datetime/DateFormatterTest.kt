@@ -2,6 +2,7 @@ package io.glory.core.util.datetime
 
 import io.glory.core.util.datetime.DateFormatter.toDate
 import io.glory.core.util.datetime.DateFormatter.toDateTime
+import io.glory.core.util.datetime.DateFormatter.toKorean
 import io.glory.core.util.datetime.DateFormatter.toStr
 import io.glory.core.util.datetime.DateFormatter.toTime
 import org.assertj.core.api.Assertions.assertThat
@@ -174,4 +175,35 @@ class DateFormatterTest {
         assertThat(actual).isEqualTo(expected)
     }
 
-}
\ No newline at end of file
+    @Test
+    fun `convert to korean with the precompiled formatters`(): Unit {
+        // given
+        val target = LocalDateTime.of(2024, 1, 2, 3, 4, 5)
+
+        // when & then
+        assertThat(target.toKorean()).isEqualTo("2024년 1월 2일 3시 4분")
+        assertThat(target.toLocalDate().toKorean()).isEqualTo("2024년 1월 2일")
+        assertThat(target.toLocalTime().toKorean()).isEqualTo("3시 4분")
+        assertThat(DateFormatter.formatter(DateFormatter.KOREAN_DATE_FORMAT)).isSameAs(DateFormatter.KOREAN_DATE_FORMATTER)
+        assertThat(DateFormatter.formatter(DateFormatter.NUMERIC_DATE_TIME_FORMAT))
+            .isSameAs(DateFormatter.NUMERIC_DATE_TIME_FORMATTER)
+    }
+
+    @Test
+    fun `custom patterns are cached up to the limit`(): Unit {
+        // given
+        val format = "yyyy.MM.dd"
+
+        // when
+        val formatter = DateFormatter.formatter(format)
+        repeat(DateFormatter.MAX_CACHED_PATTERNS + 10) { DateFormatter.formatter("yyyy'-$it'") }
+
+        // then
+        assertThat(DateFormatter.formatter(format)).isSameAs(formatter)
+        assertThat(LocalDate.of(2024, 1, 2).toStr(format)).isEqualTo("2024.01.02")
+        val uncached = "yyyy'-uncached'"
+        assertThat(DateFormatter.formatter(uncached)).isNotSameAs(DateFormatter.formatter(uncached))
+        assertThat(LocalDate.of(2024, 1, 2).toStr(uncached)).isEqualTo("2024-uncached")
+    }
+
+}
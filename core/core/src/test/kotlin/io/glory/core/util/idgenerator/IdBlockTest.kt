@@ -0,0 +1,72 @@
+package io.glory.core.util.idgenerator
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Assertions.assertThrows
+import java.nio.ByteBuffer
+import kotlin.test.Test
+
+class IdBlockTest {
+
+    @Test
+    fun `block ids are successive counter values of the node`() {
+        // given: 4 ids/ms, so that the counter carries into the time many times
+        val layout = TsidLayout(10, 10, 2)
+        val idGenerator = TsidGenerator(3, 7, layout)
+
+        // when
+        val block = idGenerator.reserve(1_000)
+
+        // then
+        val ids = block.toLongArray()
+        assertThat(ids).isSorted()
+        assertThat(ids.toSet()).hasSize(ids.size)
+        assertThat(block.last).isEqualTo(ids.last())
+        for (id in ids) {
+            val parsed = layout.parse(id)
+            assertThat(parsed[1]).isEqualTo(3L)
+            assertThat(parsed[2]).isEqualTo(7L)
+        }
+        // the next ids follow the block
+        assertThat(idGenerator.generate()).isGreaterThan(block.last)
+        // successive values of the counter
+        assertThat(ids.map { it and 3 }).isEqualTo((0 until 1_000).map { ((ids[0] and 3) + it) % 4 })
+    }
+
+    @Test
+    fun `striped block keeps the lane`() {
+        // given
+        val idGenerator = StripedTsidGenerator(1, 1, 4)
+
+        // when
+        val block = idGenerator.reserve(10_000)
+
+        // then
+        val ids = block.toLongArray()
+        assertThat(ids).isSorted()
+        assertThat(ids.map { idGenerator.parse(it)[3] }.toSet()).hasSize(1)
+    }
+
+    @Test
+    fun `toByteArray writes big-endian ids`() {
+        // given
+        val block = TsidGenerator(1, 1).reserve(100)
+
+        // when
+        val buffer = ByteBuffer.wrap(block.toByteArray()).asLongBuffer()
+
+        // then
+        assertThat(buffer.remaining()).isEqualTo(100)
+        for (index in 0 until 100) {
+            assertThat(buffer.get(index)).isEqualTo(block[index])
+        }
+    }
+
+    @Test
+    fun `invalid block`() {
+        assertThrows(IllegalArgumentException::class.java) { TsidGenerator(1, 1).reserve(0) }
+        assertThrows(IllegalArgumentException::class.java) { IdBlock(0, 0, 12) }
+        assertThrows(IllegalArgumentException::class.java) { IdBlock(0, 1, 23) }
+        assertThrows(IndexOutOfBoundsException::class.java) { IdBlock(0, 1, 12)[1] }
+    }
+
+}
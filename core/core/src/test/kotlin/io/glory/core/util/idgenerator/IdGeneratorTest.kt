@@ -0,0 +1,37 @@
+package io.glory.core.util.idgenerator
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Assertions.assertThrows
+import kotlin.test.Test
+
+class IdGeneratorTest {
+
+    /**
+     * Implements only [IdGenerator.generate], generating 1, 2, 3, ...
+     */
+    private class CountingIdGenerator : IdGenerator {
+        private var last = 0L
+
+        override fun generate(): Long = ++last
+    }
+
+    @Test
+    fun `default bulk generate calls generate for each id`() {
+        // given
+        val generator = CountingIdGenerator()
+        val ids = LongArray(5)
+
+        // when
+        generator.generate(ids, 1, 3)
+
+        // then
+        assertThat(ids).containsExactly(0L, 1L, 2L, 3L, 0L)
+        assertThrows(IndexOutOfBoundsException::class.java) { generator.generate(ids, 3, 3) }
+    }
+
+    @Test
+    fun `default reserve is not supported`() {
+        assertThrows(UnsupportedOperationException::class.java) { CountingIdGenerator().reserve(10) }
+    }
+
+}
@@ -0,0 +1,223 @@
+package io.glory.core.util.idgenerator
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Assertions.assertThrows
+import java.time.Duration
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.atomic.AtomicLong
+import kotlin.test.Test
+
+class PrefetchingIdGeneratorTest {
+
+    /**
+     * Generates 1, 2, 3, ...
+     */
+    private class SequenceIdGenerator : IdGenerator {
+        val last = AtomicLong()
+
+        override fun generate(): Long = last.incrementAndGet()
+
+        override fun generate(ids: LongArray, offset: Int, length: Int) {
+            val first = last.getAndAdd(length.toLong()) + 1
+            for (i in 0 until length) {
+                ids[offset + i] = first + i
+            }
+        }
+
+        override fun reserve(size: Int): IdBlock =
+            IdBlock(last.getAndAdd(size.toLong()) + 1, size, TsidLayout.RANDOM_BITS)
+    }
+
+    @Test
+    fun `hand out prefetched ids`() {
+        // given
+        val delegate = SequenceIdGenerator()
+        PrefetchingIdGenerator.builder(delegate).withCapacity(64).build().use { generator ->
+            awaitSize(generator, 64)
+
+            // when
+            val ids = LongArray(10) { generator.generate() }
+
+            // then
+            assertThat(ids).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L)
+            assertThat(generator.hits).isEqualTo(10L)
+            assertThat(generator.misses).isEqualTo(0L)
+        }
+    }
+
+    @Test
+    fun `fall back to the delegate when the ring is empty`() {
+        // given: a refill thread that never fills the ring
+        val delegate = SequenceIdGenerator()
+        val idle = ThreadFactory { Thread {} }
+        PrefetchingIdGenerator.builder(delegate).withThreadFactory(idle).build().use { generator ->
+
+            // when
+            val id = generator.generate()
+
+            // then
+            assertThat(id).isEqualTo(1L)
+            assertThat(generator.hits).isEqualTo(0L)
+            assertThat(generator.misses).isEqualTo(1L)
+        }
+    }
+
+    @Test
+    fun `never hand out stale ids`() {
+        // given
+        val delegate = SequenceIdGenerator()
+        val now = AtomicLong(1_000)
+        PrefetchingIdGenerator.builder(delegate)
+            .withCapacity(64)
+            .withMaxStaleness(Duration.ofMillis(50))
+            .withTimeFunction { now.get() }
+            .build().use { generator ->
+                awaitSize(generator, 64)
+                val lastPrefetched = delegate.last.get()
+
+                // when
+                now.addAndGet(51)
+                val id = generator.generate()
+
+                // then
+                assertThat(id).isGreaterThan(lastPrefetched)
+                assertThat(generator.stale).isPositive()
+            }
+    }
+
+    @Test
+    fun `an idle generator evicts stale ids without refilling`() {
+        // given
+        val delegate = SequenceIdGenerator()
+        val now = AtomicLong(1_000)
+        PrefetchingIdGenerator.builder(delegate)
+            .withCapacity(64)
+            .withMaxStaleness(Duration.ofMillis(2))
+            .withTimeFunction { now.get() }
+            .build().use { generator ->
+                awaitSize(generator, 64)
+
+                // when: the ring goes stale and nobody calls generate
+                now.addAndGet(1_000)
+                awaitSize(generator, 0)
+                Thread.sleep(50)
+
+                // then
+                assertThat(delegate.last.get()).isEqualTo(64L)
+                assertThat(generator.stale).isEqualTo(64L)
+            }
+    }
+
+    @Test
+    fun `a caller skips a few stale ids only`() {
+        // given: a refill thread that never runs, and a stale ring
+        val delegate = SequenceIdGenerator()
+        val now = AtomicLong(1_000)
+        val idle = ThreadFactory { Thread {} }
+        val generator = PrefetchingIdGenerator.builder(delegate)
+            .withCapacity(64)
+            .withMaxStaleness(Duration.ofMillis(50))
+            .withTimeFunction { now.get() }
+            .withThreadFactory(idle)
+            .build()
+        generator.refill()
+        now.addAndGet(51)
+
+        // when
+        val id = generator.generate()
+
+        // then: 4 stale ids skipped, then the delegate
+        assertThat(id).isEqualTo(65L)
+        assertThat(generator.size()).isEqualTo(60)
+        assertThat(generator.stale).isEqualTo(4L)
+        assertThat(generator.misses).isEqualTo(1L)
+        generator.close()
+    }
+
+    @Test
+    fun `no prefetched id is lost when the ring is full`() {
+        // given: a small ring refilled while many threads take ids
+        val threadPoolSize = 8
+        val numberOfIds = 20_000
+        val delegate = SequenceIdGenerator()
+        val executorService = Executors.newFixedThreadPool(threadPoolSize)
+        val endLatch = CountDownLatch(threadPoolSize)
+
+        PrefetchingIdGenerator.builder(delegate)
+            .withCapacity(16)
+            .withTimeFunction { 0L }
+            .build().use { generator ->
+                // when
+                for (i in 0 until threadPoolSize) {
+                    executorService.execute {
+                        try {
+                            repeat(numberOfIds) { generator.generate() }
+                        } finally {
+                            endLatch.countDown()
+                        }
+                    }
+                }
+                endLatch.await()
+                executorService.shutdownNow()
+
+                // then: every id of the delegate was handed out or is in the ring, but for the rest of one batch
+                val accounted = generator.hits + generator.misses + generator.size()
+                assertThat(delegate.last.get() - accounted).isBetween(0L, 16L)
+            }
+    }
+
+    @Test
+    fun `generate with many threads without duplicates`() {
+        // given
+        val threadPoolSize = 16
+        val numberOfIds = 10_000
+        val executorService = Executors.newFixedThreadPool(threadPoolSize)
+        val endLatch = CountDownLatch(threadPoolSize)
+        val set = ConcurrentHashMap.newKeySet<Long>()
+
+        PrefetchingIdGenerator.builder(TsidGenerator(1, 1)).withCapacity(1024).build().use { generator ->
+            // when
+            for (i in 0 until threadPoolSize) {
+                executorService.execute {
+                    try {
+                        repeat(numberOfIds) { set.add(generator.generate()) }
+                    } finally {
+                        endLatch.countDown()
+                    }
+                }
+            }
+            endLatch.await()
+            executorService.shutdownNow()
+
+            // then
+            assertThat(set).hasSize(threadPoolSize * numberOfIds)
+            assertThat(generator.hits + generator.misses).isEqualTo((threadPoolSize * numberOfIds).toLong())
+        }
+    }
+
+    @Test
+    fun `invalid options`() {
+        val delegate = SequenceIdGenerator()
+        assertThrows(IllegalArgumentException::class.java) {
+            PrefetchingIdGenerator.builder(delegate).withCapacity(1).build()
+        }
+        assertThrows(IllegalArgumentException::class.java) {
+            PrefetchingIdGenerator.builder(delegate).withCapacity(16).withLowWaterMark(17).build()
+        }
+        assertThrows(IllegalArgumentException::class.java) {
+            PrefetchingIdGenerator.builder(delegate).withMaxStaleness(Duration.ZERO).build()
+        }
+    }
+
+    private fun awaitSize(generator: PrefetchingIdGenerator, size: Int) {
+        val deadline = System.currentTimeMillis() + 5_000
+        while (generator.size() != size && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1)
+        }
+        assertThat(generator.size()).isEqualTo(size)
+    }
+
+}
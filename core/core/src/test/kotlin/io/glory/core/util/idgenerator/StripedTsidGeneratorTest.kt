@@ -0,0 +1,107 @@
+package io.glory.core.util.idgenerator
+
+import io.glory.core.util.datetime.CoarseClock
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Assertions.assertThrows
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import kotlin.test.Test
+
+class StripedTsidGeneratorTest {
+
+    private val idGenerator = StripedTsidGenerator(3, 7, 4)
+
+    @Test
+    fun `parse lane layout`() {
+        // when
+        val before = System.currentTimeMillis()
+        val id = idGenerator.generate()
+        val parsed = TsidGenerator.parse(id, 4)
+
+        // then: the first thread gets the first lane
+        val lane = 0L
+        assertThat(before - parsed[0]).isLessThanOrEqualTo(CoarseClock.MAX_STALENESS_MS)
+        assertThat(parsed[1]).isEqualTo(3L)
+        assertThat(parsed[2]).isEqualTo(7L)
+        assertThat(parsed[3]).isEqualTo(lane)
+        assertThat(parsed[4]).isLessThan(1L shl 8)
+        assertThat(idGenerator.parse(id)).isEqualTo(parsed)
+
+        // worker and process are at the same position as TsidGenerator
+        val plain = TsidGenerator.parse(id)
+        assertThat(plain[1]).isEqualTo(3L)
+        assertThat(plain[2]).isEqualTo(7L)
+    }
+
+    @Test
+    fun `generate with many threads without duplicates`() {
+        // given
+        val threadPoolSize = 32
+        val numberOfIds = 10_000
+        val executorService = Executors.newFixedThreadPool(threadPoolSize)
+        val endLatch = CountDownLatch(threadPoolSize)
+        val tsids = Array(threadPoolSize) { LongArray(numberOfIds) }
+
+        // when
+        for (i in 0 until threadPoolSize) {
+            executorService.execute {
+                try {
+                    for (j in 0 until numberOfIds) {
+                        tsids[i][j] = idGenerator.generate()
+                    }
+                } finally {
+                    endLatch.countDown()
+                }
+            }
+        }
+        endLatch.await()
+        executorService.shutdownNow()
+
+        // then
+        val set = HashSet<Long>()
+        tsids.forEach { ids ->
+            ids.forEach { set.add(it) }
+            assertThat(ids).isSorted()
+        }
+        assertThat(set).hasSize(threadPoolSize * numberOfIds)
+    }
+
+    @Test
+    fun `threads are spread round-robin over fewer lanes`() {
+        // given: 4 lanes and 16 virtual threads
+        val generator = StripedTsidGenerator(3, 7, 2)
+        val threadCount = 16
+        val numberOfIds = 10_000
+        val tsids = Array(threadCount) { LongArray(numberOfIds) }
+
+        // when
+        val threads = (0 until threadCount).map { i ->
+            Thread.ofVirtual().start {
+                for (j in 0 until numberOfIds) {
+                    tsids[i][j] = generator.generate()
+                }
+            }
+        }
+        threads.forEach { it.join() }
+
+        // then: every lane is used by 4 threads, and a thread keeps its lane
+        val set = HashSet<Long>()
+        val threadsPerLane = IntArray(4)
+        tsids.forEach { ids ->
+            ids.forEach { set.add(it) }
+            assertThat(ids).isSorted()
+            val lane = generator.parse(ids[0])[3].toInt()
+            assertThat(ids.map { generator.parse(it)[3].toInt() }.distinct()).containsExactly(lane)
+            threadsPerLane[lane]++
+        }
+        assertThat(set).hasSize(threadCount * numberOfIds)
+        assertThat(threadsPerLane).containsExactly(4, 4, 4, 4)
+    }
+
+    @Test
+    fun `lane bits out of range`() {
+        assertThrows(IllegalArgumentException::class.java) { StripedTsidGenerator(1, 1, 11) }
+        assertThrows(IllegalArgumentException::class.java) { TsidGenerator.parse(0L, -1) }
+    }
+
+}
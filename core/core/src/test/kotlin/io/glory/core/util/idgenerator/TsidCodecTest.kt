@@ -0,0 +1,170 @@
+package io.glory.core.util.idgenerator
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Assertions.assertThrows
+import java.nio.BufferOverflowException
+import java.io.ByteArrayOutputStream
+import java.nio.ByteBuffer
+import java.util.SplittableRandom
+import kotlin.test.Test
+
+class TsidCodecTest {
+
+    private val random = SplittableRandom(11)
+
+    @Test
+    fun `round trip of sorted, nearly sorted and random ids`() {
+        // given
+        val sorted = LongArray(10_000)
+        TsidGenerator(1, 1).generate(sorted, 0, sorted.size)
+        val nearlySorted = sorted.copyOf()
+        for (i in 1 until nearlySorted.size step 7) {
+            nearlySorted[i] = nearlySorted[i - 1].also { nearlySorted[i - 1] = nearlySorted[i] }
+        }
+        val extremes = longArrayOf(0L, Long.MIN_VALUE, Long.MAX_VALUE, -1L, 1L, Long.MIN_VALUE)
+        val randoms = LongArray(1_000) { random.nextLong() }
+
+        for (ids in listOf(sorted, nearlySorted, extremes, randoms, LongArray(0), longArrayOf(42L))) {
+            // when
+            val buffer = ByteBuffer.allocate(TsidCodec.maxEncodedLength(ids.size) + 8)
+            buffer.putLong(-1L)
+            TsidCodec.encode(ids, 0, ids.size, buffer)
+            buffer.flip().position(8)
+
+            // then
+            assertThat(TsidCodec.decode(buffer)).isEqualTo(ids)
+            assertThat(buffer.hasRemaining()).isFalse()
+        }
+    }
+
+    @Test
+    fun `ids of the same millisecond take about one byte`() {
+        // given: 100 ids per millisecond, dense counters
+        val ids = LongArray(100_000) { TsidLayout.minId(1_700_000_000_000L + it / 100) + it % 100 }
+
+        // when
+        val buffer = ByteBuffer.allocate(TsidCodec.maxEncodedLength(ids.size))
+        TsidCodec.encode(ids, 0, ids.size, buffer)
+
+        // then
+        assertThat(buffer.position().toDouble() / ids.size).isLessThan(1.2)
+    }
+
+    @Test
+    fun `frame of reference packs jittered deltas`() {
+        // given: deltas of 2^22 + [0, 16), every varint delta takes 4 bytes
+        var id = TsidLayout.minId(1_700_000_000_000L)
+        val ids = LongArray(1_280) { id.also { id += (1L shl 22) + random.nextInt(16) } }
+
+        // when
+        val buffer = ByteBuffer.allocate(TsidCodec.maxEncodedLength(ids.size))
+        TsidCodec.encode(ids, 0, ids.size, buffer)
+
+        // then
+        assertThat(buffer.position().toDouble() / ids.size).isLessThan(1.0)
+        assertThat(TsidCodec.decode(buffer.flip())).isEqualTo(ids)
+    }
+
+    @Test
+    fun `streaming through the encoder and decoder`() {
+        // given
+        val ids = LongArray(1_000) { TsidLayout.minId(1_700_000_000_000L + it) + random.nextInt(4) }
+        val buffer = ByteBuffer.allocateDirect(TsidCodec.maxEncodedLength(ids.size))
+
+        // when
+        TsidCodec.Encoder(buffer).use { encoder -> ids.forEach(encoder::write) }
+        val decoder = TsidCodec.Decoder(buffer.flip())
+
+        // then
+        for (expected in ids) {
+            assertThat(decoder.hasNext()).isTrue()
+            assertThat(decoder.nextLong()).isEqualTo(expected)
+        }
+        assertThat(decoder.hasNext()).isFalse()
+        assertThrows(NoSuchElementException::class.java) { decoder.nextLong() }
+    }
+
+    @Test
+    fun `read in chunks across frames`() {
+        // given
+        val ids = LongArray(1_000) { TsidLayout.minId(1_700_000_000_000L + it / 3) + it % 3 }
+        val buffer = TsidCodec.encode(ids, 0, ids.size, ByteBuffer.allocate(TsidCodec.maxEncodedLength(ids.size)))
+        val decoder = TsidCodec.Decoder(buffer.flip())
+
+        // when
+        val decoded = LongArray(ids.size + 10)
+        var length = 0
+        while (true) {
+            val read = decoder.read(decoded, length, minOf(97, decoded.size - length))
+            if (read == 0) break
+            length += read
+        }
+
+        // then
+        assertThat(length).isEqualTo(ids.size)
+        assertThat(decoded.copyOf(length)).isEqualTo(ids)
+        assertThrows(IndexOutOfBoundsException::class.java) { decoder.read(decoded, 1_005, 6) }
+    }
+
+    @Test
+    fun `stream through a buffer smaller than the sequence`() {
+        // given
+        val ids = LongArray(5_000) { random.nextLong() }
+        val buffer = ByteBuffer.allocate(TsidCodec.maxEncodedLength(128) + 7)
+        val output = ByteArrayOutputStream()
+
+        // when: drain the buffer whenever a frame does not fit
+        val encoder = TsidCodec.Encoder(buffer)
+        fun drain() {
+            output.write(buffer.array(), 0, buffer.position())
+            buffer.clear()
+        }
+        for (id in ids) {
+            try {
+                encoder.write(id)
+            } catch (e: BufferOverflowException) {
+                drain()
+                encoder.write(id)
+            }
+        }
+        try {
+            encoder.close()
+        } catch (e: BufferOverflowException) {
+            drain()
+            encoder.close()
+        }
+        drain()
+
+        // then: refill the buffer whenever a frame is not whole
+        val input = ByteBuffer.wrap(output.toByteArray())
+        buffer.limit(0)
+        val decoder = TsidCodec.Decoder(buffer)
+        val decoded = LongArray(ids.size + 1)
+        var length = 0
+        while (!decoder.isEnded()) {
+            length += decoder.read(decoded, length, decoded.size - length)
+            buffer.compact()
+            val chunk = input.slice().limit(minOf(input.remaining(), buffer.remaining(), 300))
+            buffer.put(chunk)
+            input.position(input.position() + chunk.limit())
+            buffer.flip()
+        }
+        assertThat(length).isEqualTo(ids.size)
+        assertThat(decoded.copyOf(length)).isEqualTo(ids)
+        assertThat(input.hasRemaining()).isFalse()
+    }
+
+    @Test
+    fun `buffer too small or malformed`() {
+        val ids = LongArray(200) { random.nextLong() }
+
+        assertThrows(BufferOverflowException::class.java) { TsidCodec.encode(ids, 0, ids.size, ByteBuffer.allocate(100)) }
+        assertThrows(IndexOutOfBoundsException::class.java) { TsidCodec.encode(ids, 150, 100, ByteBuffer.allocate(10)) }
+
+        val buffer = TsidCodec.encode(ids, 0, ids.size, ByteBuffer.allocate(TsidCodec.maxEncodedLength(ids.size))).flip()
+        assertThrows(IllegalArgumentException::class.java) { TsidCodec.decode(buffer.duplicate().limit(100)) }
+        assertThrows(IllegalArgumentException::class.java) { TsidCodec.decode(ByteBuffer.wrap(byteArrayOf(1, 9, 0))) }
+        assertThrows(IllegalArgumentException::class.java) { TsidCodec.decode(ByteBuffer.wrap(byteArrayOf(-127, 1, 0))) }
+    }
+
+}
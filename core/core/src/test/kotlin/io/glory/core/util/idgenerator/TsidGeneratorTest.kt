@@ -69,6 +69,20 @@ class TsidGeneratorTest {
         set.forEach { println(TsidGenerator.parse(it).contentToString()) }
     }
 
+    @Test
+    fun `generateBulk`(): Unit {
+        // given
+        val ids = LongArray(10_000)
+
+        // when
+        idGenerator.generate(ids, 0, ids.size)
+
+        // then
+        assertThat(ids).isSorted()
+        assertThat(ids.toSet()).hasSize(ids.size)
+        assertThat(idGenerator.generate()).isGreaterThan(ids.last())
+    }
+
     @Disabled("heavy test")
     @DisplayName("Tsid Generator 32 thread 테스트 - 동시 요청자 수: 256, 1024, 4096, 100000, 500000 일 때")
     @ParameterizedTest
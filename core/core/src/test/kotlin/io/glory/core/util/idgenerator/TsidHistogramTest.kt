@@ -0,0 +1,71 @@
+package io.glory.core.util.idgenerator
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Assertions.assertThrows
+import java.time.Duration
+import java.util.Arrays
+import java.util.SplittableRandom
+import kotlin.test.Test
+
+class TsidHistogramTest {
+
+    private val start = 1_700_000_000_000L
+
+    @Test
+    fun `count ids per second`() {
+        // given: 3 seconds, ids out of order at the end
+        val ids = LongArray(3_000) { TsidLayout.minId(start + it) + it % 7 }
+        ids[2_999] = ids[0]
+
+        // when
+        val histogram = TsidHistogram.perSecond()
+        histogram.addAll(ids, 0, ids.size)
+
+        // then
+        assertThat(histogram.total()).isEqualTo(3_000L)
+        assertThat(histogram.keys()).isEqualTo(longArrayOf(start, start + 1_000, start + 2_000))
+        assertThat(histogram.count(start)).isEqualTo(1_001L)
+        assertThat(histogram.count(start + 1_000)).isEqualTo(1_000L)
+        assertThat(histogram.count(start + 2_000)).isEqualTo(999L)
+        assertThat(histogram.count(start + 500)).isZero()
+    }
+
+    @Test
+    fun `count ids per node from a parallel stream`() {
+        // given
+        val layout = TsidLayout.DEFAULT
+        val random = SplittableRandom(3)
+        val ids = LongArray(100_000) { TsidLayout.minId(start + it / 100) or (random.nextInt(1 shl 22).toLong()) }
+
+        // when
+        val histogram = Arrays.stream(ids).parallel()
+            .collect({ TsidHistogram.perNode(layout) }, TsidHistogram::accept, { a, b -> a.merge(b) })
+
+        // then
+        val expected = ids.groupBy { layout.nodeOf(it).toLong() }.mapValues { it.value.size.toLong() }
+        assertThat(histogram.total()).isEqualTo(ids.size.toLong())
+        assertThat(histogram.size()).isEqualTo(expected.size)
+        val counts = HashMap<Long, Long>()
+        histogram.forEach { key, count -> counts[key] = count }
+        assertThat(counts).isEqualTo(expected)
+        assertThat(histogram.keys()).isSorted()
+    }
+
+    @Test
+    fun `time buckets are aligned on the epoch`() {
+        // given
+        val histogram = TsidHistogram.perTime(Duration.ofMinutes(1))
+        val minute = start - start % 60_000
+
+        // when
+        histogram.accept(TsidLayout.minId(minute - 1))
+        histogram.accept(TsidLayout.minId(minute))
+        histogram.accept(TsidLayout.maxId(minute + 59_999))
+
+        // then
+        assertThat(histogram.keys()).isEqualTo(longArrayOf(minute - 60_000, minute))
+        assertThat(histogram.count(minute)).isEqualTo(2L)
+        assertThrows(IllegalArgumentException::class.java) { TsidHistogram.perTime(Duration.ofNanos(10)) }
+    }
+
+}
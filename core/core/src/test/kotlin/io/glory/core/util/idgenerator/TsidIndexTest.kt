@@ -0,0 +1,118 @@
+package io.glory.core.util.idgenerator
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.assertThrows
+import java.nio.file.Files
+import java.nio.file.Path
+import java.time.Instant
+import kotlin.test.Test
+
+class TsidIndexTest {
+
+    private val directory: Path = Files.createTempDirectory("tsid-index")
+    private val start = Instant.parse("2025-01-01T00:00:00Z")
+
+    @AfterEach
+    fun tearDown() {
+        directory.toFile().deleteRecursively()
+    }
+
+    @Test
+    fun `range scan across segments`() {
+        // given: 10 ids per millisecond for 1 second, 64 ids per segment
+        val ids = LongArray(10_000) { TsidLayout.minId(start.toEpochMilli() + it / 10) + it % 10 }
+
+        TsidIndex.builder(directory).withSegmentCapacity(64).build().use { index ->
+            // when
+            index.append(ids, 0, ids.size)
+
+            // then
+            assertThat(index.size()).isEqualTo(10_000L)
+            val from = start.plusMillis(100)
+            val to = start.plusMillis(199)
+            assertThat(index.between(from, to).toArray()).isEqualTo(ids.copyOfRange(1_000, 2_000))
+            assertThat(index.count(from, to)).isEqualTo(1_000L)
+            assertThat(index.count(start.minusSeconds(1), start.plusSeconds(1))).isEqualTo(10_000L)
+            assertThat(index.count(start.plusSeconds(1), start.plusSeconds(2))).isZero()
+            assertThat(index.between(to, from).count()).isZero()
+        }
+    }
+
+    @Test
+    fun `reopen keeps the ids`() {
+        // given
+        val idGenerator = TsidGenerator(1, 1)
+        val ids = LongArray(1_000)
+        idGenerator.generate(ids, 0, ids.size)
+        TsidIndex.builder(directory).withSegmentCapacity(300).build().use { it.append(ids, 0, 500) }
+
+        // when
+        TsidIndex.builder(directory).withSegmentCapacity(300).build().use { index ->
+            index.append(ids, 500, 500)
+
+            // then
+            assertThat(index.size()).isEqualTo(1_000L)
+            val from = Instant.ofEpochMilli(TsidLayout.timestamp(ids.first()))
+            val to = Instant.ofEpochMilli(TsidLayout.timestamp(ids.last()))
+            assertThat(index.between(from, to).toArray()).isEqualTo(ids)
+        }
+        assertThat(Files.list(directory).use { files -> files.filter { it.toString().endsWith(".tsid") }.count() })
+            .isEqualTo(4L)
+    }
+
+    @Test
+    fun `the directory is locked while the index is open`() {
+        // given
+        val index = TsidIndex.builder(directory).withSegmentCapacity(8).build()
+        index.append(10L)
+        val stream = index.between(Instant.EPOCH, start)
+
+        // when, then: a second index on the directory fails until the first one is closed
+        assertThrows(IllegalStateException::class.java) { TsidIndex.builder(directory).withSegmentCapacity(8).build() }
+        index.close()
+        TsidIndex.builder(directory).withSegmentCapacity(8).build().use { assertThat(it.size()).isEqualTo(1L) }
+
+        // reads fail after close, except for the streams returned before
+        assertThat(stream.toArray()).containsExactly(10L)
+        assertThrows(IllegalStateException::class.java) { index.size() }
+        assertThrows(IllegalStateException::class.java) { index.count(Instant.EPOCH, start) }
+        assertThrows(IllegalStateException::class.java) { index.between(Instant.EPOCH, start) }
+        assertThrows(IllegalStateException::class.java) { index.append(11L) }
+        index.close()
+    }
+
+    @Test
+    fun `ids out of order`() {
+        TsidIndex.builder(directory).withSegmentCapacity(8).build().use { index ->
+            index.append(10L)
+
+            assertThrows(IllegalArgumentException::class.java) { index.append(10L) }
+            assertThrows(IllegalArgumentException::class.java) { index.append(longArrayOf(11L, 13L, 12L), 0, 3) }
+            assertThrows(IllegalArgumentException::class.java) { index.append(longArrayOf(9L, 20L), 0, 2) }
+            assertThat(index.size()).isEqualTo(1L)
+        }
+        assertThrows(IllegalArgumentException::class.java) {
+            TsidIndex.builder(directory).withSegmentCapacity(0).build()
+        }
+    }
+
+    @Test
+    fun `segment of the largest capacity`() {
+        // given: a sparse 1GB segment file
+        val capacity = TsidIndex.MAX_SEGMENT_CAPACITY
+        TsidIndex.builder(directory).withSegmentCapacity(capacity).build().use { it.append(10L) }
+
+        // when
+        TsidIndex.builder(directory).withSegmentCapacity(capacity).build().use { index ->
+            index.append(11L)
+
+            // then
+            assertThat(index.size()).isEqualTo(2L)
+        }
+        assertThrows(IllegalArgumentException::class.java) {
+            TsidIndex.builder(directory).withSegmentCapacity(capacity + 1).build()
+        }
+    }
+
+}
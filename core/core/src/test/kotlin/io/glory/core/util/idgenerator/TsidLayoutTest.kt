@@ -0,0 +1,122 @@
+package io.glory.core.util.idgenerator
+
+import io.glory.core.util.datetime.CoarseClock
+import io.glory.core.util.idgenerator.tsid.node.ProcessNode
+import io.glory.core.util.idgenerator.tsid.node.WorkerNode
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Assertions.assertThrows
+import kotlin.test.Test
+
+class TsidLayoutTest {
+
+    @Test
+    fun `default layout parses like the fixed masks`() {
+        // given
+        val id = TsidGenerator(3, 7).generate()
+
+        // when
+        val parsed = TsidLayout.DEFAULT.parse(id)
+
+        // then
+        assertThat(parsed[1]).isEqualTo((id and 0x3E0000) shr 17)
+        assertThat(parsed[2]).isEqualTo((id and 0x1F000) shr 12)
+        assertThat(parsed[3]).isEqualTo(id and 0xFFF)
+        assertThat(parsed).isEqualTo(TsidGenerator.parse(id))
+    }
+
+    @Test
+    fun `field accessors and columns match parse`() {
+        // given
+        val layout = TsidLayout(3, 2, 17)
+        val ids = LongArray(1_000)
+        TsidGenerator(5, 2, layout).generate(ids, 0, 500)
+        TsidGenerator(1, 3, layout).generate(ids, 500, 500)
+
+        // when
+        val columns = layout.parse(ids, 100, 800, TsidColumns(1_000))
+
+        // then
+        assertThat(columns.size()).isEqualTo(800)
+        for (i in 0 until 800) {
+            val id = ids[100 + i]
+            val parsed = layout.parse(id)
+            assertThat(columns.timestamps()[i]).isEqualTo(parsed[0])
+            assertThat(columns.workers()[i].toLong()).isEqualTo(parsed[1])
+            assertThat(columns.processes()[i].toLong()).isEqualTo(parsed[2])
+            assertThat(columns.sequences()[i].toLong()).isEqualTo(parsed[3])
+            assertThat(layout.nodeOf(id)).isEqualTo(layout.node(layout.workerOf(id), layout.processOf(id)))
+        }
+        val id = TsidGenerator(3, 7).generate()
+        assertThat(TsidGenerator.timestampOf(id)).isEqualTo(TsidGenerator.parse(id)[0])
+        assertThat(TsidGenerator.workerOf(id)).isEqualTo(3)
+        assertThat(TsidGenerator.processOf(id)).isEqualTo(7)
+        assertThat(TsidGenerator.sequenceOf(id).toLong()).isEqualTo(TsidGenerator.parse(id)[3])
+        assertThat(TsidGenerator.parse(longArrayOf(id)).workers()[0]).isEqualTo(3)
+        assertThrows(IllegalArgumentException::class.java) { layout.parse(ids, 0, 11, TsidColumns(10)) }
+        assertThrows(IndexOutOfBoundsException::class.java) { layout.parse(ids, 999, 2, TsidColumns(10)) }
+    }
+
+    @Test
+    fun `generate and parse with a custom layout`() {
+        // given: 8 workers, 1 process, 2^19 ids/ms
+        val layout = TsidLayout(3, 0, 19)
+        val idGenerator = TsidGenerator(5, 0, layout)
+        val ids = LongArray(10_000)
+
+        // when
+        val before = System.currentTimeMillis()
+        idGenerator.generate(ids, 0, ids.size)
+
+        // then
+        assertThat(ids).isSorted()
+        assertThat(ids.toSet()).hasSize(ids.size)
+        ids.forEach {
+            val parsed = idGenerator.layout.parse(it)
+            assertThat(parsed[1]).isEqualTo(5L)
+            assertThat(parsed[2]).isEqualTo(0L)
+        }
+        // 10,000 ids fit in the counter of a single millisecond
+        val parsed = layout.parse(ids.last())
+        assertThat(before - parsed[0]).isLessThanOrEqualTo(CoarseClock.MAX_STALENESS_MS)
+        assertThat(parsed[0]).isEqualTo(layout.parse(ids.first())[0])
+        assertThat(TsidLayout.timestamp(ids.last())).isEqualTo(parsed[0])
+    }
+
+    @Test
+    fun `striped generator with a custom layout`() {
+        // given
+        val layout = TsidLayout(3, 2, 17)
+        val idGenerator = StripedTsidGenerator(7, 3, 6, layout)
+
+        // when
+        val parsed = idGenerator.parse(idGenerator.generate())
+
+        // then
+        assertThat(parsed[1]).isEqualTo(7L)
+        assertThat(parsed[2]).isEqualTo(3L)
+        assertThat(parsed[3]).isEqualTo(0L)
+        assertThrows(IllegalArgumentException::class.java) { StripedTsidGenerator(1, 1, 16, layout) }
+    }
+
+    @Test
+    fun `invalid layout`() {
+        assertThrows(IllegalArgumentException::class.java) { TsidLayout(5, 5, 11) }
+        assertThrows(IllegalArgumentException::class.java) { TsidLayout(-1, 5, 18) }
+        assertThrows(IllegalArgumentException::class.java) { TsidLayout(10, 11, 1) }
+        assertThrows(IllegalArgumentException::class.java) { TsidGenerator(8, 0, TsidLayout(3, 0, 19)) }
+        assertThrows(IllegalArgumentException::class.java) { TsidGenerator(0, 1, TsidLayout(3, 0, 19)) }
+    }
+
+    @Test
+    fun `node ranges follow the layout`() {
+        assertThat(WorkerNode.range(3)).isEqualTo(0L..7L)
+        assertThat(WorkerNode.range(5)).isEqualTo(0L..31L)
+        assertThat(WorkerNode.range(8)).isEqualTo(0L..31L)
+        assertThat(ProcessNode.range(0)).isEqualTo(0L..0L)
+
+        assertThat(WorkerNode.from(7, 3)).isEqualTo(WorkerNode.WORKER_7)
+        assertThat(WorkerNode.from(8, 3)).isEqualTo(WorkerNode.INVALID)
+        assertThat(ProcessNode.from(1, 0)).isEqualTo(ProcessNode.INVALID)
+    }
+
+}
@@ -0,0 +1,61 @@
+package io.glory.core.util.idgenerator
+
+import org.assertj.core.api.Assertions.assertThat
+import java.util.SplittableRandom
+import kotlin.test.Test
+
+class TsidLongLongMapTest {
+
+    @Test
+    fun `same content as a HashMap`() {
+        // given: clustered ids with the zero key, puts, additions and removes mixed
+        val random = SplittableRandom(9)
+        val keys = LongArray(2_000) { TsidLayout.minId(1_700_000_000_000L + random.nextInt(100)) + random.nextInt(16) }
+        keys[0] = 0L
+        val expected = HashMap<Long, Long>()
+        val map = TsidLongLongMap()
+
+        // when
+        repeat(200_000) {
+            val key = keys[random.nextInt(keys.size)]
+            val value = random.nextLong()
+            when (random.nextInt(4)) {
+                0 -> assertThat(map.remove(key)).isEqualTo(expected.remove(key) != null)
+                1 -> assertThat(map.addTo(key, value)).isEqualTo(expected.merge(key, value, Long::plus))
+                else -> assertThat(map.put(key, value)).isEqualTo(expected.put(key, value) == null)
+            }
+        }
+
+        // then
+        assertThat(map.size()).isEqualTo(expected.size)
+        for (key in keys) {
+            assertThat(map.getOrDefault(key, -1L)).isEqualTo(expected.getOrDefault(key, -1L))
+            assertThat(map.containsKey(key)).isEqualTo(expected.containsKey(key))
+        }
+        val entries = HashMap<Long, Long>()
+        map.forEach { key, value -> entries[key] = value }
+        assertThat(entries).isEqualTo(expected)
+    }
+
+    @Test
+    fun `count ids per millisecond`() {
+        // given
+        val ids = LongArray(100_000)
+        TsidGenerator(1, 1).generate(ids, 0, ids.size)
+        val counts = TsidLongLongMap()
+
+        // when
+        ids.forEach { counts.addTo(TsidLayout.minId(TsidLayout.timestamp(it)), 1L) }
+
+        // then
+        var total = 0L
+        counts.forEach { _, count -> total += count }
+        assertThat(total).isEqualTo(ids.size.toLong())
+        assertThat(counts.size()).isEqualTo(ids.map { TsidLayout.timestamp(it) }.distinct().size)
+
+        counts.clear()
+        assertThat(counts.isEmpty()).isTrue()
+        assertThat(counts.getOrDefault(ids.first(), 0L)).isZero()
+    }
+
+}
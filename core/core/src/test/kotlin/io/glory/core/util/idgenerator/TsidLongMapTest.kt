@@ -0,0 +1,119 @@
+package io.glory.core.util.idgenerator
+
+import com.sun.management.ThreadMXBean
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Assertions.assertThrows
+import org.junit.jupiter.api.Disabled
+import java.lang.management.ManagementFactory
+import java.lang.ref.Reference
+import java.util.SplittableRandom
+import kotlin.test.Test
+
+class TsidLongMapTest {
+
+    @Test
+    fun `same content as a HashMap`() {
+        // given: clustered ids with the zero key, puts and removes mixed
+        val random = SplittableRandom(5)
+        val keys = LongArray(2_000) { TsidLayout.minId(1_700_000_000_000L + random.nextInt(100)) + random.nextInt(16) }
+        keys[0] = 0L
+        val expected = HashMap<Long, String>()
+        val map = TsidLongMap<String>()
+
+        // when
+        repeat(200_000) {
+            val key = keys[random.nextInt(keys.size)]
+            when (random.nextInt(3)) {
+                0 -> assertThat(map.remove(key)).isEqualTo(expected.remove(key))
+                else -> assertThat(map.put(key, "$key-$it")).isEqualTo(expected.put(key, "$key-$it"))
+            }
+        }
+
+        // then
+        assertThat(map.size()).isEqualTo(expected.size)
+        for (key in keys) {
+            assertThat(map.get(key)).isEqualTo(expected[key])
+            assertThat(map.containsKey(key)).isEqualTo(expected.containsKey(key))
+        }
+        val entries = HashMap<Long, String>()
+        map.forEach { key, value -> entries[key] = value }
+        assertThat(entries).isEqualTo(expected)
+    }
+
+    @Test
+    fun `generated ids grow the table`() {
+        // given
+        val ids = LongArray(100_000)
+        TsidGenerator(1, 1).generate(ids, 0, ids.size)
+        val map = TsidLongMap<Long>(10)
+
+        // when
+        ids.forEach { map.put(it, it) }
+
+        // then
+        assertThat(map.size()).isEqualTo(ids.size)
+        ids.forEach { assertThat(map.get(it)).isEqualTo(it) }
+        assertThat(map.containsKey(ids.last() + 1)).isFalse()
+        assertThat(map.computeIfAbsent(ids.first()) { -1L }).isEqualTo(ids.first())
+        assertThat(map.computeIfAbsent(1L) { -1L }).isEqualTo(-1L)
+
+        map.clear()
+        assertThat(map.isEmpty()).isTrue()
+        assertThat(map.containsKey(ids.first())).isFalse()
+    }
+
+    @Test
+    fun `get and put allocate nothing`() {
+        // given
+        val ids = LongArray(10_000)
+        TsidGenerator(1, 1).generate(ids, 0, ids.size)
+        val map = TsidLongMap<String>(ids.size)
+        val value = "value"
+        val threads = ManagementFactory.getThreadMXBean() as ThreadMXBean
+        val thread = Thread.currentThread().threadId()
+
+        // when
+        repeat(3) { ids.forEach { map.put(it, value); map.get(it) } }
+        val before = threads.getThreadAllocatedBytes(thread)
+        repeat(10) { ids.forEach { map.put(it, value); map.get(it) } }
+        val allocated = threads.getThreadAllocatedBytes(thread) - before
+
+        // then
+        assertThat(allocated).isLessThan(1_024L)
+    }
+
+    @Test
+    fun `invalid arguments`() {
+        assertThrows(IllegalArgumentException::class.java) { TsidLongMap<String>().put(1L, null) }
+        assertThrows(IllegalArgumentException::class.java) { TsidLongMap<String>(-1) }
+        assertThrows(IllegalArgumentException::class.java) { TsidLongLongMap((1 shl 29) + 1) }
+    }
+
+    @Test
+    @Disabled("heavy test")
+    fun `memory footprint - TsidLongMap vs HashMap`() {
+        val ids = LongArray(5_000_000)
+        TsidGenerator(1, 1).generate(ids, 0, ids.size)
+        val value = Any()
+
+        val hashMap = measure { HashMap<Long, Any>().apply { ids.forEach { put(it, value) } } }
+        val tsidLongMap = measure { TsidLongMap<Any>().apply { ids.forEach { put(it, value) } } }
+        val hashLongMap = measure { HashMap<Long, Long>().apply { ids.forEach { put(it, it) } } }
+        val tsidLongLongMap = measure { TsidLongLongMap().apply { ids.forEach { put(it, it) } } }
+
+        println("==> ${ids.size} ids: HashMap<Long, V> = ${hashMap / ids.size} bytes/id , TsidLongMap = ${tsidLongMap / ids.size} bytes/id")
+        println("==> ${ids.size} ids: HashMap<Long, Long> = ${hashLongMap / ids.size} bytes/id , TsidLongLongMap = ${tsidLongLongMap / ids.size} bytes/id")
+    }
+
+    private fun measure(create: () -> Any): Long {
+        val memory = ManagementFactory.getMemoryMXBean()
+        System.gc()
+        val before = memory.heapMemoryUsage.used
+        val map = create()
+        System.gc()
+        val after = memory.heapMemoryUsage.used
+        Reference.reachabilityFence(map)
+        return after - before
+    }
+
+}
@@ -0,0 +1,81 @@
+package io.glory.core.util.idgenerator
+
+import io.glory.core.util.datetime.LocalDateTimeRange
+import io.glory.core.util.datetime.SearchDates
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Assertions.assertThrows
+import java.time.Instant
+import java.time.LocalDate
+import java.time.LocalDateTime
+import java.time.ZoneId
+import kotlin.test.Test
+
+class TsidRangeTest {
+
+    private val zone = ZoneId.of("Asia/Seoul")
+
+    @Test
+    fun `range of a LocalDateTimeRange contains the ids generated within it`() {
+        // given
+        val before = LocalDateTime.now(zone).minusSeconds(1)
+        val ids = LongArray(1_000)
+        TsidGenerator(1, 1).generate(ids, 0, ids.size)
+        val after = LocalDateTime.now(zone).plusSeconds(1)
+
+        // when
+        val range = TsidRange.from(LocalDateTimeRange(before, after), zone)
+        val earlier = TsidRange.from(LocalDateTimeRange(before.minusHours(1), before), zone)
+
+        // then
+        for (id in ids) {
+            assertThat(range.contains(id)).isTrue()
+            assertThat(earlier.contains(id)).isFalse()
+        }
+    }
+
+    @Test
+    fun `bounds are the first and last ids of the milliseconds`() {
+        // given
+        val start = LocalDateTime.of(2025, 3, 1, 9, 0, 0, 500_000)
+        val end = LocalDateTime.of(2025, 3, 1, 18, 0)
+        val startMillis = start.atZone(zone).toInstant().toEpochMilli()
+        val endMillis = end.atZone(zone).toInstant().toEpochMilli()
+
+        // when
+        val range = TsidRange.from(LocalDateTimeRange(start, end), zone)
+
+        // then
+        assertThat(range.min).isEqualTo(TsidLayout.minId(startMillis))
+        assertThat(range.max).isEqualTo(TsidLayout.maxId(endMillis))
+        assertThat(TsidLayout.timestamp(range.min)).isEqualTo(startMillis)
+        assertThat(TsidLayout.timestamp(range.max)).isEqualTo(endMillis)
+        assertThat(range.contains(range.min - 1)).isFalse()
+        assertThat(range.contains(range.max + 1)).isFalse()
+    }
+
+    @Test
+    fun `range of SearchDates covers the whole end date`() {
+        // given
+        val searchDates = SearchDates(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 3))
+        val start = LocalDate.of(2025, 3, 1).atStartOfDay(zone).toInstant().toEpochMilli()
+        val nextDay = LocalDate.of(2025, 3, 4).atStartOfDay(zone).toInstant().toEpochMilli()
+
+        // when
+        val range = TsidRange.from(searchDates, zone)
+
+        // then
+        assertThat(range.min).isEqualTo(TsidLayout.minId(start))
+        assertThat(range.contains(TsidLayout.maxId(nextDay - 1))).isTrue()
+        assertThat(range.contains(TsidLayout.minId(nextDay))).isFalse()
+        assertThat(range.max + 1).isEqualTo(TsidLayout.minId(nextDay))
+    }
+
+    @Test
+    fun `start after end`() {
+        assertThrows(IllegalArgumentException::class.java) {
+            TsidRange.from(Instant.ofEpochSecond(2), Instant.ofEpochSecond(1))
+        }
+        assertThrows(IllegalArgumentException::class.java) { TsidRange(2, 1) }
+    }
+
+}
@@ -0,0 +1,105 @@
+package io.glory.core.util.idgenerator
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Disabled
+import java.lang.management.ManagementFactory
+import java.lang.ref.Reference
+import java.util.SplittableRandom
+import java.util.TreeSet
+import kotlin.test.Test
+
+class TsidSetTest {
+
+    @Test
+    fun `same content as a TreeSet in any order`() {
+        // given: clustered ids, shuffled, with duplicates and negative numbers
+        val random = SplittableRandom(7)
+        val ids = LongArray(50_000) {
+            when (it % 10) {
+                0 -> random.nextLong()
+                else -> TsidLayout.minId(1_700_000_000_000L + random.nextInt(5_000)) + random.nextInt(64)
+            }
+        }
+        val expected = TreeSet<Long>()
+        val set = TsidSet()
+
+        // when
+        for (id in ids) {
+            assertThat(set.add(id)).isEqualTo(expected.add(id))
+        }
+
+        // then
+        assertThat(set.size()).isEqualTo(expected.size.toLong())
+        assertThat(set.stream().toArray()).isEqualTo(expected.toLongArray())
+        for (id in ids) {
+            assertThat(set.contains(id)).isTrue()
+            assertThat(set.contains(id + 1)).isEqualTo(expected.contains(id + 1))
+        }
+    }
+
+    @Test
+    fun `generated ids in time order`() {
+        // given
+        val ids = LongArray(100_000)
+        TsidGenerator(1, 1).generate(ids, 0, ids.size)
+        val set = TsidSet()
+
+        // when
+        val added = set.addAll(ids, 0, ids.size)
+
+        // then
+        assertThat(added).isEqualTo(ids.size)
+        assertThat(set.addAll(ids, 0, 10)).isZero()
+        assertThat(set.stream().toArray()).isEqualTo(ids)
+        // about one byte per id
+        assertThat(set.sizeInBytes()).isLessThan(ids.size * 2L)
+    }
+
+    @Test
+    fun `union and intersection`() {
+        // given
+        val a = TsidSet()
+        val b = TsidSet()
+        val base = TsidLayout.minId(1_700_000_000_000L)
+        for (i in 0 until 10_000) {
+            a.add(base + i * 2)
+            b.add(base + i * 3)
+        }
+
+        // when
+        val union = a.union(b)
+        val intersection = a.intersection(b)
+
+        // then
+        val expectedUnion = (0 until 10_000).flatMap { listOf(base + it * 2, base + it * 3) }.toSortedSet()
+        val expectedIntersection = (0 until 10_000).map { base + it * 2 }.filter { (it - base) % 3 == 0L }
+        assertThat(union.stream().toArray()).isEqualTo(expectedUnion.toLongArray())
+        assertThat(intersection.stream().toArray()).isEqualTo(expectedIntersection.toLongArray())
+        assertThat(a.union(TsidSet()).size()).isEqualTo(a.size())
+        assertThat(a.intersection(TsidSet()).isEmpty()).isTrue()
+    }
+
+    @Test
+    @Disabled("heavy test")
+    fun `memory footprint - TsidSet vs HashSet`() {
+        val ids = LongArray(5_000_000)
+        TsidGenerator(1, 1).generate(ids, 0, ids.size)
+
+        val hashSet = measure { HashSet<Long>().apply { ids.forEach { add(it) } } }
+        val tsidSet = measure { TsidSet().apply { addAll(ids, 0, ids.size) } }
+
+        println("==> ${ids.size} ids: HashSet = ${hashSet / ids.size} bytes/id , TsidSet = ${tsidSet / ids.size} bytes/id")
+    }
+
+    private fun measure(create: () -> Any): Long {
+        val memory = ManagementFactory.getMemoryMXBean()
+        System.gc()
+        val before = memory.heapMemoryUsage.used
+        val set = create()
+        System.gc()
+        val after = memory.heapMemoryUsage.used
+        Reference.reachabilityFence(set)
+        return after - before
+    }
+
+}
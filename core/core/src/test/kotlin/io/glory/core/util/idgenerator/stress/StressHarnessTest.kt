@@ -0,0 +1,118 @@
+package io.glory.core.util.idgenerator.stress
+
+import io.glory.core.util.idgenerator.TsidGenerator
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.assertThrows
+import org.junit.jupiter.api.Disabled
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.function.LongSupplier
+import kotlin.test.Test
+
+class StressHarnessTest {
+
+    private val directory: Path = Files.createTempDirectory("stress")
+
+    @AfterEach
+    fun tearDown() {
+        directory.toFile().deleteRecursively()
+    }
+
+    @Test
+    fun `unique ids from platform and virtual threads`() {
+        val idGenerator = TsidGenerator(1, 1)
+        for (threadKind in StressHarness.ThreadKind.entries) {
+            // given
+            val harness = StressHarness.builder()
+                .withThreads(16)
+                .withIdsPerThread(20_000)
+                .withThreadKind(threadKind)
+                .build()
+
+            // when
+            val result = harness.run { LongSupplier { idGenerator.generate() } }
+
+            // then
+            assertThat(result.size()).isEqualTo(320_000L)
+            assertThat(result.isUnique()).isTrue()
+            assertThat(result.isSequential()).isTrue()
+            assertThat(result.latency().count()).isEqualTo(320_000L)
+            assertThat(result.latency().percentile(50.0)).isLessThanOrEqualTo(result.latency().max())
+            println("==> $threadKind: $result")
+        }
+    }
+
+    @Test
+    fun `count duplicates and ids out of order`() {
+        // given: every thread generates 0, 0, 1, 1, ..., 4, 4
+        val harness = StressHarness.builder().withThreads(2).withIdsPerThread(10).build()
+        val merged = ArrayList<Long>()
+
+        // when
+        val result = harness.run({ var n = 0L; LongSupplier { n++ / 2 } }, { merged.add(it) })
+
+        // then
+        assertThat(result.size()).isEqualTo(20L)
+        assertThat(result.duplicates()).isEqualTo(15L)
+        assertThat(result.outOfOrder()).isEqualTo(10L)
+        assertThat(merged).isEqualTo((0L..4L).flatMap { listOf(it, it, it, it) })
+        assertThrows(IllegalStateException::class.java) { harness.run { error("broken generator") } }
+        assertThrows(IllegalArgumentException::class.java) { StressHarness.builder().withThreads(0).build() }
+    }
+
+    @Test
+    fun `latency percentiles`() {
+        // given
+        val histogram = LatencyHistogram()
+
+        // when: 1 ~ 1000ns
+        (1L..1_000L).forEach { histogram.record(it) }
+
+        // then: within 12.5%
+        assertThat(histogram.count()).isEqualTo(1_000L)
+        assertThat(histogram.percentile(50.0)).isBetween(500L, 563L)
+        assertThat(histogram.percentile(99.0)).isBetween(990L, 1_000L)
+        assertThat(histogram.percentile(100.0)).isEqualTo(1_000L)
+        assertThat(LatencyHistogram().merge(histogram).percentile(50.0)).isEqualTo(histogram.percentile(50.0))
+    }
+
+    @Test
+    fun `unique ids across child JVMs`() {
+        for (generator in ForkedStress.Generator.entries) {
+            // given
+            val stress = ForkedStress.builder(directory)
+                .withGenerator(generator)
+                .withProcesses(2)
+                .withThreads(2)
+                .withIdsPerThread(20_000)
+                .build()
+
+            // when
+            val result = stress.run()
+
+            // then
+            assertThat(result.size()).isEqualTo(80_000L)
+            assertThat(result.isUnique()).isTrue()
+            println("==> $generator: $result")
+        }
+    }
+
+    @Test
+    @Disabled("heavy test")
+    fun `hundreds of millions of ids across child JVMs`() {
+        // 8 JVMs x 4 threads x 8M = 256M ids, 512MB of ids per JVM
+        val result = ForkedStress.builder(directory)
+            .withGenerator(ForkedStress.Generator.SHARED_STATE)
+            .withProcesses(8)
+            .withThreads(4)
+            .withIdsPerThread(8_000_000)
+            .withJvmOptions("-Xmx1g")
+            .build()
+            .run()
+
+        println("==> $result")
+        assertThat(result.isUnique()).isTrue()
+    }
+
+}
@@ -0,0 +1,144 @@
+package io.glory.core.util.idgenerator.tsid;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TsidBaseNTest {
+
+    private static final int    SAMPLES = 2_000;
+    private static final long[] EDGES   = {0L, 1L, -1L, Long.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE + 1, 61L, 62L};
+
+    @Test
+    @DisplayName("encode 는 BigInteger 기반 구현과 같은 문자열을 만든다 (base 2 ~ 62)")
+    void encode_same_as_reference() {
+        SplittableRandom random = new SplittableRandom(10);
+        for (int base = 2; base <= 62; base++) {
+            for (int i = 0; i < SAMPLES; i++) {
+                // given
+                long number = i < EDGES.length ? EDGES[i] : random.nextLong() >>> random.nextInt(64);
+                Tsid tsid = new Tsid(number);
+
+                // when
+                String encoded = tsid.encode(base);
+
+                // then
+                assertThat(encoded).isEqualTo(Reference.encode(number, base));
+                assertThat(Tsid.decode(encoded, base)).isEqualTo(tsid);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("decode 는 BigInteger 기반 구현과 같은 값 또는 같은 예외 메시지를 낸다 (임의 문자열, overflow 포함)")
+    void decode_same_as_reference() {
+        SplittableRandom random = new SplittableRandom(20);
+        for (int b = 2; b <= 62; b++) {
+            final int base = b;
+            final int length = Reference.length(base);
+            for (int i = 0; i < SAMPLES; i++) {
+                // given: digits of the base, sometimes of the whole alphabet or invalid
+                char[] chars = new char[length];
+                for (int j = 0; j < length; j++) {
+                    int bound = i % 10 == 0 ? 62 : base;
+                    chars[j] = Reference.ALPHABET.charAt(random.nextInt(bound));
+                }
+                if (i % 50 == 1) {
+                    chars[random.nextInt(length)] = '-';
+                }
+                String string = new String(chars);
+
+                // when, then
+                assertThat(outcome(() -> Tsid.decode(string, base))).isEqualTo(
+                        outcome(() -> Reference.decode(string, base)));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("decode 는 잘못된 base, 길이에서 BigInteger 기반 구현과 같은 예외 메시지를 낸다")
+    void decode_invalid_same_as_reference() {
+        for (String string : new String[] {null, "", "0", "zzzzzzzzzzzz", "00000000000"}) {
+            for (int base : new int[] {1, 2, 10, 16, 62, 63}) {
+                assertThat(outcome(() -> Tsid.decode(string, base))).isEqualTo(
+                        outcome(() -> Reference.decode(string, base)));
+            }
+        }
+        assertThat(outcome(() -> new Tsid(1L).encode(63))).isEqualTo("Invalid base: 63");
+        assertThat(outcome(() -> new Tsid(1L).encode(1))).isEqualTo("Invalid base: 1");
+    }
+
+    private static Object outcome(java.util.function.Supplier<Object> supplier) {
+        try {
+            return supplier.get();
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+
+    /**
+     * The BigInteger based implementation of {@link Tsid.BaseN} before the long-only fast path.
+     */
+    private static class Reference {
+
+        static final BigInteger MAX      = BigInteger.valueOf(2).pow(64).subtract(BigInteger.ONE);
+        static final String     ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+
+        static int length(int base) {
+            return (int)Math.ceil(Long.SIZE / (Math.log(base) / Math.log(2)));
+        }
+
+        static String encode(long number, int base) {
+            long x = number;
+            int b = length(base);
+            char[] buffer = new char[b];
+            while (Long.compareUnsigned(x, 0) > 0) {
+                final long div = Long.divideUnsigned(x, base);
+                final long rem = Long.remainderUnsigned(x, base);
+                buffer[--b] = ALPHABET.charAt((int)rem);
+                x = div;
+            }
+            while (b > 0) {
+                buffer[--b] = '0';
+            }
+            return new String(buffer);
+        }
+
+        static Tsid decode(String string, int base) {
+            if (string == null) {
+                throw new IllegalArgumentException(String.format("Invalid base-%d string: null", base));
+            }
+            if (base < 2 || base > 62) {
+                throw new IllegalArgumentException(String.format("Invalid base: %s", base));
+            }
+            long x = 0L;
+            long last = 0;
+            long plus = 0;
+            final int length = length(base);
+            if (string.length() != length) {
+                throw new IllegalArgumentException(String.format("Invalid base-%d length: %s", base, string.length()));
+            }
+            for (int i = 0; i < length; i++) {
+                plus = ALPHABET.indexOf(string.charAt(i));
+                if (plus == -1) {
+                    throw new IllegalArgumentException(
+                            String.format("Invalid base-%d character: %s", base, string.charAt(i)));
+                }
+                last = x;
+                x = (x * base) + plus;
+            }
+            BigInteger lazt = new BigInteger(1, ByteBuffer.allocate(8).putLong(last).array());
+            if (lazt.multiply(BigInteger.valueOf(base)).add(BigInteger.valueOf(plus)).compareTo(MAX) > 0) {
+                throw new IllegalArgumentException(String.format("Invalid base-%d value (overflow): %s", base, lazt));
+            }
+            return new Tsid(x);
+        }
+
+    }
+
+}
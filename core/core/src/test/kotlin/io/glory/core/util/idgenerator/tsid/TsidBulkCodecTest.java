@@ -0,0 +1,80 @@
+package io.glory.core.util.idgenerator.tsid;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TsidBulkCodecTest {
+
+    @Test
+    @DisplayName("writeAll 은 toString 을 이어 붙인 것과 같고 parseAll 로 되돌릴 수 있다")
+    void writeAll_parseAll() {
+        // given
+        SplittableRandom random = new SplittableRandom(3);
+        long[] numbers = new long[1_002];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = random.nextLong();
+        }
+        numbers[1] = -1L;
+        numbers[2] = 0L;
+
+        // when
+        byte[] bytes = new byte[4 + 13 * 1_000];
+        int end = Tsid.writeAll(numbers, 1, 1_000, bytes, 4);
+        long[] parsed = new long[1_000];
+        int[] invalid = Tsid.parseAll(bytes, 4, parsed, 0, 1_000);
+
+        // then
+        assertThat(end).isEqualTo(bytes.length);
+        StringBuilder expected = new StringBuilder();
+        for (int i = 1; i <= 1_000; i++) {
+            expected.append(new Tsid(numbers[i]));
+        }
+        assertThat(new String(bytes, 4, 13 * 1_000, StandardCharsets.US_ASCII)).isEqualTo(expected.toString());
+        assertThat(invalid).isEmpty();
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(parsed[i]).isEqualTo(numbers[i + 1]);
+        }
+    }
+
+    @Test
+    @DisplayName("parseAll 은 유효하지 않은 항목을 0 으로 두고 그 index 를 모두 알려준다")
+    void parseAll_reports_invalid() {
+        // given
+        String batch = "0AWE5HZP3SKTK"  // 0: valid
+                + "0awe5hzp3sktk"      // 1: valid, lower case
+                + "GAWE5HZP3SKTK"      // 2: overflow
+                + "0AWE5HZP3SKT-"      // 3: invalid character
+                + "0AXFXR5W7VBX0"      // 4: made non-ASCII below
+                + "0AWE5HZP3SKTU";     // 5: U is not in the alphabet
+        byte[] bytes = batch.getBytes(StandardCharsets.US_ASCII);
+        bytes[13 * 4 + 3] = (byte)0xC1; // 4: non-ASCII
+
+        // when
+        long[] numbers = new long[6];
+        int[] invalid = Tsid.parseAll(bytes, 0, numbers, 0, 6);
+
+        // then
+        assertThat(invalid).containsExactly(2, 3, 4, 5);
+        assertThat(numbers[0]).isEqualTo(Tsid.from("0AWE5HZP3SKTK").toLong());
+        assertThat(numbers[1]).isEqualTo(numbers[0]);
+        for (int i = 2; i < 6; i++) {
+            assertThat(numbers[i]).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("범위가 배열을 벗어나면 예외가 발생한다")
+    void out_of_bounds() {
+        assertThrows(IndexOutOfBoundsException.class, () -> Tsid.writeAll(new long[2], 0, 2, new byte[25], 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> Tsid.writeAll(new long[2], 1, 2, new byte[26], 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> Tsid.parseAll(new byte[26], 1, new long[2], 0, 2));
+        assertThat(Tsid.parseAll(new byte[0], 0, new long[0], 0, 0)).isEmpty();
+    }
+
+}
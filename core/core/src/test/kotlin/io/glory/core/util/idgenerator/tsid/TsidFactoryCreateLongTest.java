@@ -0,0 +1,65 @@
+package io.glory.core.util.idgenerator.tsid;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TsidFactoryCreateLongTest {
+
+    private static final long FIXED_TIME = System.currentTimeMillis();
+
+    @Test
+    @DisplayName("createLongs 는 createLong 을 연속 호출한 것과 같은 TSID 를 채운다 (counter overflow 포함)")
+    void createLongs_same_as_createLong() {
+        for (boolean lockFree : new boolean[] {false, true}) {
+            // given
+            TsidFactory single = newFactory(lockFree);
+            TsidFactory bulk = newFactory(lockFree);
+
+            // when
+            long[] ids = new long[110];
+            bulk.createLongs(ids, 5, 100);
+
+            // then
+            assertThat(ids[0]).isEqualTo(0L);
+            assertThat(ids[4]).isEqualTo(0L);
+            assertThat(ids[105]).isEqualTo(0L);
+            for (int i = 5; i < 105; i++) {
+                assertThat(ids[i]).isEqualTo(single.createLong());
+            }
+
+            // the next TSID continues after the block
+            assertThat(bulk.createLong()).isEqualTo(single.createLong());
+            assertThat(bulk.create().toLong()).isGreaterThan(ids[104]);
+        }
+    }
+
+    @Test
+    @DisplayName("createLongs 의 범위가 배열을 벗어나면 예외가 발생하고 상태는 변하지 않는다")
+    void createLongs_out_of_bounds() {
+        // given
+        TsidFactory factory = newFactory(true);
+        TsidFactory expected = newFactory(true);
+
+        // when, then
+        assertThrows(IndexOutOfBoundsException.class, () -> factory.createLongs(new long[10], 5, 6));
+        assertThrows(IndexOutOfBoundsException.class, () -> factory.createLongs(new long[10], -1, 1));
+        factory.createLongs(new long[10], 10, 0);
+
+        assertThat(factory.createLong()).isEqualTo(expected.createLong());
+    }
+
+    private static TsidFactory newFactory(boolean lockFree) {
+        // 2 counter bits -> the time is carried every 4 TSIDs
+        return TsidFactory.builder()
+                .withNodeBits(20)
+                .withNode(1)
+                .withRandomFunction(byte[]::new)
+                .withTimeFunction(() -> FIXED_TIME)
+                .withLockFree(lockFree)
+                .build();
+    }
+
+}
@@ -0,0 +1,179 @@
+package io.glory.core.util.idgenerator.tsid;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TsidFactoryDriftTest {
+
+    private static final long FIXED_TIME = System.currentTimeMillis();
+
+    @Test
+    @DisplayName("최대 drift 를 지정하지 않으면 counter overflow 시 다음 ms 를 빌려 쓰고 metrics 에 기록한다")
+    void borrow_unbounded() {
+        for (boolean lockFree : new boolean[] {false, true}) {
+            // given
+            AtomicLong time = new AtomicLong(FIXED_TIME);
+            TsidFactory factory = newFactory(lockFree, time::get).build();
+
+            // when: 4 TSIDs per ms -> 3 carries
+            long[] ids = new long[16];
+            factory.createLongs(ids, 0, 16);
+
+            // then
+            TsidFactory.Metrics metrics = factory.getMetrics();
+            assertThat(metrics.borrowedMillis()).isEqualTo(3);
+            assertThat(metrics.currentDriftMillis()).isEqualTo(3);
+            assertThat(metrics.maxDriftMillis()).isEqualTo(3);
+            assertThat(metrics.waits()).isZero();
+            assertThat(metrics.failures()).isZero();
+
+            // the overflows are reported for the last complete second
+            time.addAndGet(1000);
+            factory.createLong();
+            metrics = factory.getMetrics();
+            assertThat(metrics.overflowsPerSecond()).isEqualTo(3);
+            assertThat(metrics.currentDriftMillis()).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("시계가 뒤로 가면 그만큼의 ms 를 빌려 쓴 것으로 metrics 에 한 번만 기록한다")
+    void borrow_after_backward_step() {
+        for (boolean lockFree : new boolean[] {false, true}) {
+            // given
+            AtomicLong time = new AtomicLong(FIXED_TIME);
+            TsidFactory factory = newFactory(lockFree, time::get).build();
+            factory.createLong();
+
+            // when: the clock steps back by 50ms
+            time.addAndGet(-50);
+            factory.createLong();
+            factory.createLong();
+
+            // then
+            TsidFactory.Metrics metrics = factory.getMetrics();
+            assertThat(metrics.borrowedMillis()).isEqualTo(50);
+            assertThat(metrics.currentDriftMillis()).isEqualTo(50);
+            assertThat(metrics.overflowsPerSecond()).isZero();
+
+            // an overflow on top of the step adds its carry
+            factory.createLong();
+            factory.createLong();
+            assertThat(factory.getMetrics().borrowedMillis()).isEqualTo(51);
+            assertThat(factory.getMetrics().currentDriftMillis()).isEqualTo(51);
+        }
+    }
+
+    @Test
+    @DisplayName("FAIL_FAST 정책은 최대 drift 를 넘으면 예외가 발생하고 상태는 변하지 않는다")
+    void fail_fast() {
+        for (boolean lockFree : new boolean[] {false, true}) {
+            // given
+            TsidFactory factory = newFactory(lockFree, () -> FIXED_TIME)
+                    .withMaxDrift(Duration.ZERO)
+                    .withDriftPolicy(TsidFactory.DriftPolicy.FAIL_FAST)
+                    .build();
+            long last = 0;
+            for (int i = 0; i < 4; i++) {
+                last = factory.createLong();
+            }
+
+            // when, then
+            assertThrows(IllegalStateException.class, factory::createLong);
+            assertThrows(IllegalStateException.class, factory::createLong);
+            assertThat(factory.getMetrics().failures()).isEqualTo(2);
+            assertThat(factory.getMetrics().borrowedMillis()).isZero();
+            assertThat(factory.getMetrics().currentDriftMillis()).isZero();
+            assertThat(last & 0x3).isEqualTo(3);
+        }
+    }
+
+    @Test
+    @DisplayName("WAIT 정책은 시계가 따라올 때까지 기다린 뒤 TSID 를 생성한다")
+    void wait_for_clock() {
+        for (boolean lockFree : new boolean[] {false, true}) {
+            // given: the clock advances by 1ms every 8 readings
+            AtomicLong readings = new AtomicLong();
+            TsidFactory factory = newFactory(lockFree, () -> FIXED_TIME + readings.getAndIncrement() / 8)
+                    .withMaxDrift(Duration.ZERO)
+                    .withDriftPolicy(TsidFactory.DriftPolicy.WAIT)
+                    .build();
+
+            // when
+            long prev = 0;
+            for (int i = 0; i < 20; i++) {
+                long id = factory.createLong();
+
+                // then
+                assertThat(id).isGreaterThan(prev);
+                prev = id;
+            }
+            TsidFactory.Metrics metrics = factory.getMetrics();
+            assertThat(metrics.waits()).isPositive();
+            assertThat(metrics.borrowedMillis()).isZero();
+            assertThat(metrics.maxDriftMillis()).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("lock 모드의 WAIT 정책은 lock 을 놓고 기다리므로 여러 thread 가 함께 기다린다")
+    void wait_for_clock_locked_without_lock() throws InterruptedException {
+        // given: the clock steps back by 200ms after the first TSID
+        AtomicLong offset = new AtomicLong();
+        TsidFactory factory = newFactory(false, () -> System.currentTimeMillis() + offset.get())
+                .withMaxDrift(Duration.ZERO)
+                .withDriftPolicy(TsidFactory.DriftPolicy.WAIT)
+                .build();
+        long first = factory.createLong();
+        offset.set(-200);
+
+        // when
+        int threadCount = 4;
+        long[] ids = new long[threadCount];
+        Thread[] threads = new Thread[threadCount];
+        long start = System.nanoTime();
+        for (int i = 0; i < threadCount; i++) {
+            final int index = i;
+            threads[i] = new Thread(() -> ids[index] = factory.createLong());
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // then: every thread waited on its own, at the same time
+        assertThat(factory.getMetrics().waits()).isGreaterThanOrEqualTo(threadCount);
+        assertThat(elapsedMillis).isLessThan(2_000L);
+        for (long id : ids) {
+            assertThat(id).isGreaterThan(first);
+        }
+        assertThat(Arrays.stream(ids).distinct().count()).isEqualTo((long)threadCount);
+    }
+
+    @Test
+    @DisplayName("최대 drift 가 음수면 예외가 발생한다")
+    void negative_max_drift() {
+        TsidFactory.Builder builder = newFactory(true, () -> FIXED_TIME).withMaxDrift(Duration.ofMillis(-1));
+
+        assertThrows(IllegalArgumentException.class, builder::build);
+    }
+
+    private static TsidFactory.Builder newFactory(boolean lockFree, java.util.function.LongSupplier timeFunction) {
+        // 2 counter bits -> the time is carried every 4 TSIDs
+        return TsidFactory.builder()
+                .withNodeBits(20)
+                .withNode(1)
+                .withRandomFunction(byte[]::new)
+                .withTimeFunction(timeFunction)
+                .withLockFree(lockFree);
+    }
+
+}
@@ -0,0 +1,142 @@
+package io.glory.core.util.idgenerator.tsid;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class TsidFactoryLockFreeTest {
+
+    private static final Logger LOGGER = Logger.getLogger("TsidFactoryLockFreeTest");
+
+    @Test
+    @DisplayName("lock-free 모드는 synchronized 모드와 같은 순서의 TSID 를 생성한다 (counter overflow 포함)")
+    void same_sequence_as_synchronized() {
+        // given
+        final long fixedTime = System.currentTimeMillis();
+        TsidFactory locked = TsidFactory.builder()
+                .withNodeBits(20)
+                .withNode(1)
+                .withRandomFunction(byte[]::new)
+                .withTimeFunction(() -> fixedTime)
+                .build();
+        TsidFactory lockFree = TsidFactory.builder()
+                .withNodeBits(20)
+                .withNode(1)
+                .withRandomFunction(byte[]::new)
+                .withTimeFunction(() -> fixedTime)
+                .withLockFree(true)
+                .build();
+
+        // when, then: 2 counter bits -> the time is carried every 4 TSIDs
+        long last = 0;
+        for (int i = 0; i < 100; i++) {
+            long expected = locked.create().toLong();
+            long actual = lockFree.create().toLong();
+            assertThat(actual).isEqualTo(expected);
+            assertThat(actual).isGreaterThan(last);
+            last = actual;
+        }
+        assertThat(new Tsid(last).getUnixMilliseconds()).isEqualTo(fixedTime + 24);
+    }
+
+    @Test
+    @DisplayName("lock-free 모드 16 thread 동시 생성시 중복이 없고 thread 별로 단조 증가한다")
+    void unique_and_monotonic_per_thread() throws Exception {
+        // given
+        int threadPoolSize = 16;
+        int numberOfIds = 20_000;
+        TsidFactory factory = TsidFactory.builder().withNodeBits(10).withNode(1).withLockFree(true).build();
+        ExecutorService executorService = Executors.newFixedThreadPool(threadPoolSize);
+        CountDownLatch endLatch = new CountDownLatch(threadPoolSize);
+        long[][] tsids = new long[threadPoolSize][numberOfIds];
+
+        // when
+        for (int i = 0; i < threadPoolSize; i++) {
+            int threadI = i;
+            executorService.execute(() -> {
+                try {
+                    for (int j = 0; j < numberOfIds; j++) {
+                        tsids[threadI][j] = factory.create().toLong();
+                    }
+                } finally {
+                    endLatch.countDown();
+                }
+            });
+        }
+        endLatch.await();
+        executorService.shutdownNow();
+
+        // then
+        Set<Long> set = new HashSet<>();
+        for (long[] ids : tsids) {
+            for (int j = 0; j < ids.length; j++) {
+                set.add(ids[j]);
+                if (j > 0) {
+                    assertThat(ids[j]).isGreaterThan(ids[j - 1]);
+                }
+            }
+        }
+        assertThat(set).hasSize(threadPoolSize * numberOfIds);
+    }
+
+    @Disabled("heavy test")
+    @DisplayName("synchronized vs lock-free 경합 벤치마크 - thread 수: 1, 4, 16, 64, 128 일 때")
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4, 16, 64, 128})
+    void contention_benchmark(int threadPoolSize) throws Exception {
+        int numberOfIds = 200_000;
+
+        // warm up
+        run(TsidFactory.builder().withNode(1).build(), threadPoolSize, numberOfIds);
+        run(TsidFactory.builder().withNode(1).withLockFree(true).build(), threadPoolSize, numberOfIds);
+
+        long lockedMs = run(TsidFactory.builder().withNode(1).build(), threadPoolSize, numberOfIds);
+        long lockFreeMs = run(TsidFactory.builder().withNode(1).withLockFree(true).build(), threadPoolSize, numberOfIds);
+
+        LOGGER.info(() -> "[thread 수: " + threadPoolSize + "] synchronized: " + lockedMs + "ms , lock-free: "
+                          + lockFreeMs + "ms");
+    }
+
+    private static long run(TsidFactory factory, int threadPoolSize, int numberOfIds) throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(threadPoolSize);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        CountDownLatch endLatch = new CountDownLatch(threadPoolSize);
+        long[] sink = new long[threadPoolSize];
+
+        for (int i = 0; i < threadPoolSize; i++) {
+            int threadI = i;
+            executorService.execute(() -> {
+                try {
+                    startLatch.await();
+                    for (int j = 0; j < numberOfIds; j++) {
+                        sink[threadI] ^= factory.create().toLong();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    endLatch.countDown();
+                }
+            });
+        }
+
+        long startTime = System.nanoTime();
+        startLatch.countDown();
+        endLatch.await();
+        long elapsedMs = (System.nanoTime() - startTime) / 1_000_000;
+
+        executorService.shutdownNow();
+        return elapsedMs;
+    }
+
+}
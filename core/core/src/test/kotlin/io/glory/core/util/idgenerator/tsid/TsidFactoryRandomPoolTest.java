@@ -0,0 +1,83 @@
+package io.glory.core.util.idgenerator.tsid;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TsidFactoryRandomPoolTest {
+
+    @Test
+    @DisplayName("pool 의 값을 순서대로 한 번씩 꺼내고 다 쓰면 미리 채운 다음 pool 로 넘어간다")
+    void pooled_values_in_order() {
+        // given: refills run in the caller
+        AtomicInteger source = new AtomicInteger();
+        TsidFactory.PooledRandom random = new TsidFactory.PooledRandom(
+                new TsidFactory.IntRandom(source::getAndIncrement), 4, Runnable::run);
+
+        // when, then
+        for (int i = 0; i < 100; i++) {
+            assertThat(random.nextInt()).isEqualTo(i);
+        }
+        assertThat(random.nextBytes(6)).isEqualTo(new byte[] {0, 0, 0, 100, 0, 0});
+    }
+
+    @Test
+    @DisplayName("다음 pool 이 아직 채워지지 않았으면 기다리지 않고 source 를 직접 호출한다")
+    void late_refill_falls_back_to_source() {
+        // given: refills are held back
+        AtomicInteger source = new AtomicInteger();
+        List<Runnable> refills = new ArrayList<>();
+        TsidFactory.PooledRandom random = new TsidFactory.PooledRandom(
+                new TsidFactory.IntRandom(source::getAndIncrement), 4, refills::add);
+        for (int i = 0; i < 4; i++) {
+            assertThat(random.nextInt()).isEqualTo(i);
+        }
+
+        // when
+        int fallback = random.nextInt();
+        refills.remove(0).run();
+
+        // then
+        assertThat(fallback).isEqualTo(4);
+        assertThat(refills).isEmpty();
+        assertThat(random.nextInt()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("random pool 을 사용하는 factory 는 여러 thread 에서 중복 없는 TSID 를 만든다")
+    void factory_with_random_pool() throws InterruptedException {
+        // given
+        TsidFactory factory = TsidFactory.builder()
+                .withRandom(new SecureRandom())
+                .withRandomPool(64)
+                .withLockFree(true)
+                .build();
+        int perThread = 50_000;
+        long[] ids = new long[4 * perThread];
+
+        // when
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            final int index = i;
+            threads[i] = new Thread(() -> factory.createLongs(ids, index * perThread, perThread));
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // then
+        assertThat(Arrays.stream(ids).distinct().count()).isEqualTo((long)ids.length);
+        assertThrows(IllegalArgumentException.class, () -> TsidFactory.builder().withRandomPool(0).build());
+        assertThrows(IllegalArgumentException.class, () -> TsidFactory.builder().withRandomPool((1 << 20) + 1).build());
+    }
+
+}
@@ -0,0 +1,91 @@
+package io.glory.core.util.idgenerator.tsid;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TsidFactorySharedStateTest {
+
+    private final Path file = createTempFile();
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    @DisplayName("같은 상태 파일을 공유하는 factory 들은 같은 node 로 중복 없는 TSID 를 만든다")
+    void shared_state_unique() throws InterruptedException {
+        // given: one factory per "process", each one mapping the file
+        TsidFactory[] factories = new TsidFactory[4];
+        for (int i = 0; i < factories.length; i++) {
+            factories[i] = newBuilder(1).build();
+        }
+        int perThread = 50_000;
+        long[] ids = new long[factories.length * perThread];
+
+        // when
+        Thread[] threads = new Thread[factories.length];
+        for (int i = 0; i < threads.length; i++) {
+            final int index = i;
+            threads[i] = new Thread(() -> factories[index].createLongs(ids, index * perThread, perThread));
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // then
+        assertThat(Arrays.stream(ids).distinct().count()).isEqualTo((long)ids.length);
+        for (long id : ids) {
+            assertThat((id >>> 12) & 0x3ff).isEqualTo(1L);
+        }
+        // the state survives the factories
+        long last = Arrays.stream(ids).max().getAsLong();
+        assertThat(newBuilder(1).build().createLong()).isGreaterThan(last);
+    }
+
+    @Test
+    @DisplayName("다른 node 가 사용 중인 상태 파일은 공유할 수 없다")
+    void shared_state_other_node() {
+        newBuilder(1).build();
+
+        assertThrows(IllegalArgumentException.class, () -> newBuilder(2).build());
+        assertThrows(IllegalArgumentException.class, () -> newBuilder(1).withNodeBits(8).build());
+        assertThat(newBuilder(1).build().createLong()).isGreaterThan(0L);
+    }
+
+    @Test
+    @DisplayName("다른 epoch 로 사용 중인 상태 파일은 공유할 수 없다")
+    void shared_state_other_epoch() {
+        newBuilder(1).withCustomEpoch(Instant.parse("2015-01-01T00:00:00Z")).build();
+
+        assertThrows(IllegalArgumentException.class, () -> newBuilder(1).build());
+        assertThrows(IllegalArgumentException.class,
+                () -> newBuilder(1).withCustomEpoch(Instant.parse("2020-01-01T00:00:00Z")).build());
+        assertThat(newBuilder(1).withCustomEpoch(Instant.parse("2015-01-01T00:00:00Z")).build().createLong())
+                .isGreaterThan(0L);
+    }
+
+    private TsidFactory.Builder newBuilder(int node) {
+        return TsidFactory.builder().withNode(node).withNodeBits(10).withSharedState(file);
+    }
+
+    private static Path createTempFile() {
+        try {
+            return Files.createTempFile("tsid", ".state");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
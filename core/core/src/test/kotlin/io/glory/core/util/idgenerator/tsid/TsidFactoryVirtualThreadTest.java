@@ -0,0 +1,98 @@
+package io.glory.core.util.idgenerator.tsid;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TsidFactoryVirtualThreadTest {
+
+    private static final String PINNED = "jdk.VirtualThreadPinned";
+
+    @Test
+    @DisplayName("virtual thread 들이 clock 을 기다리며 park 해도 carrier thread 에 pin 되지 않는다")
+    void no_pinning() throws IOException {
+        for (boolean lockFree : new boolean[] {false, true}) {
+            assertNoPinning(lockFree, 20_000);
+        }
+    }
+
+    @Test
+    @Disabled("heavy test")
+    @DisplayName("백만 개의 virtual thread 가 pin 없이 중복 없는 TSID 를 만든다")
+    void no_pinning_million() throws IOException {
+        for (boolean lockFree : new boolean[] {false, true}) {
+            assertNoPinning(lockFree, 1_000_000);
+        }
+    }
+
+    private static void assertNoPinning(boolean lockFree, int threads) throws IOException {
+        // given: 4096 IDs/ms and no drift, so that the callers park inside the factory
+        TsidFactory factory = TsidFactory.builder()
+                .withNodeBits(10)
+                .withNode(1)
+                .withLockFree(lockFree)
+                .withMaxDrift(Duration.ZERO)
+                .build();
+        long[] ids = new long[threads];
+
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(PINNED).withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+
+            // when
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < threads; i++) {
+                    final int index = i;
+                    executor.execute(() -> ids[index] = factory.createLong());
+                }
+            }
+
+            recording.stop();
+            Path file = Files.createTempFile("tsid-pinned", ".jfr");
+            try {
+                recording.dump(file);
+                events = RecordingFile.readAllEvents(file);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        // then
+        long pinned = events.stream()
+                .filter(event -> event.getEventType().getName().equals(PINNED))
+                .filter(TsidFactoryVirtualThreadTest::inFactory)
+                .count();
+        assertThat(pinned).isEqualTo(0L);
+        assertThat(factory.getMetrics().waits()).isGreaterThan(0L);
+        assertThat(Arrays.stream(ids).distinct().count()).isEqualTo((long)threads);
+    }
+
+    private static boolean inFactory(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return false;
+        }
+        for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+            if (frame.getMethod().getType().getName().equals(TsidFactory.class.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
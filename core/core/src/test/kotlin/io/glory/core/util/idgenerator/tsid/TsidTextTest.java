@@ -0,0 +1,83 @@
+package io.glory.core.util.idgenerator.tsid;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TsidTextTest {
+
+    private static final long[] NUMBERS = {0L, 1L, -1L, Long.MIN_VALUE, Long.MAX_VALUE, 0x0123456789abcdefL};
+
+    @Test
+    @DisplayName("appendTo, writeTo 는 toString 과 같은 문자열을 쓴다")
+    void write_same_as_toString() {
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < 10_000; i++) {
+            // given
+            Tsid tsid = new Tsid(i < NUMBERS.length ? NUMBERS[i] : random.nextLong());
+            String expected = tsid.toString();
+
+            // when
+            StringBuilder builder = tsid.appendTo(new StringBuilder("id="));
+            char[] chars = new char[20];
+            int charsEnd = tsid.writeTo(chars, 3);
+            byte[] bytes = new byte[20];
+            int bytesEnd = tsid.writeTo(bytes, 5);
+            ByteBuffer buffer = tsid.writeTo(ByteBuffer.allocate(20).position(2));
+
+            // then
+            assertThat(builder.toString()).isEqualTo("id=" + expected);
+            assertThat(new String(chars, 3, 13)).isEqualTo(expected);
+            assertThat(charsEnd).isEqualTo(16);
+            assertThat(new String(bytes, 5, 13, StandardCharsets.US_ASCII)).isEqualTo(expected);
+            assertThat(bytesEnd).isEqualTo(18);
+            assertThat(buffer.position()).isEqualTo(15);
+            assertThat(new String(buffer.array(), 2, 13, StandardCharsets.US_ASCII)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    @DisplayName("parse 는 from(String) 과 같은 값을 String 생성 없이 읽는다")
+    void parse_same_as_from() {
+        SplittableRandom random = new SplittableRandom(2);
+        for (int i = 0; i < 10_000; i++) {
+            // given
+            Tsid tsid = new Tsid(i < NUMBERS.length ? NUMBERS[i] : random.nextLong());
+            String string = (i % 2 == 0) ? tsid.toString() : tsid.toLowerCase();
+            StringBuilder builder = new StringBuilder("id=").append(string).append(';');
+            byte[] bytes = builder.toString().getBytes(StandardCharsets.US_ASCII);
+
+            // when, then
+            assertThat(Tsid.parse(builder, 3)).isEqualTo(Tsid.from(string).toLong());
+            assertThat(Tsid.parse(bytes, 3)).isEqualTo(tsid.toLong());
+        }
+    }
+
+    @Test
+    @DisplayName("parse 는 유효하지 않은 문자열이나 범위에서 예외가 발생한다")
+    void parse_invalid() {
+        // overflow: the first character must be between 0 and F
+        assertThrows(IllegalArgumentException.class, () -> Tsid.parse("G000000000000", 0));
+        assertThrows(IllegalArgumentException.class, () -> Tsid.parse("0000000000U00", 0));
+        assertThrows(IllegalArgumentException.class, () -> Tsid.parse("000000000000é", 0));
+        assertThrows(IllegalArgumentException.class, () -> Tsid.parse("0000000000-00".getBytes(), 0));
+        assertThrows(IllegalArgumentException.class, () -> Tsid.parse(new byte[] {
+                '0', '0', '0', '0', '0', '0', '0', '0', '0', '0', '0', '0', (byte)0xC0}, 0));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> Tsid.parse("0000000000000", 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> Tsid.parse(new byte[12], 0));
+
+        Tsid tsid = new Tsid(1L);
+        assertThrows(IndexOutOfBoundsException.class, () -> tsid.writeTo(new char[13], 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> tsid.writeTo(new byte[12], 0));
+        assertThrows(BufferOverflowException.class, () -> tsid.writeTo(ByteBuffer.allocate(12)));
+    }
+
+}
@@ -1,12 +1,10 @@
 package io.glory.core.util.idgenerator.tsid.collision;
 
-import java.util.HashSet;
-import java.util.Set;
-import java.util.concurrent.CountDownLatch;
 import java.util.function.Function;
 
+import io.glory.core.util.idgenerator.stress.StressHarness;
+import io.glory.core.util.idgenerator.stress.StressResult;
 import io.glory.core.util.idgenerator.tsid.TsidFactory;
-import io.glory.core.util.idgenerator.tsid.Tsid;
 
 /**
  * @author Francesco Illuminati <fillumina@gmail.com>
@@ -40,61 +38,22 @@ public class TestPerformer {
     }
 
     public Stats test(Function<Integer, TsidFactory> factorySupplier) {
+        final StressHarness harness = StressHarness.builder()
+                .withThreads(threadCount)
+                .withIdsPerThread(iterationCount)
+                .build();
         Stats total = Stats.EMPTY;
         for (int i = 0; i < repetitions; i++) {
-            long startNanos = System.nanoTime();
-            Tsid[][] array = executeTest(factorySupplier);
-            final Stats stats = createStats(startNanos, array);
-            total = total.add(stats);
+            final StressResult result = harness.run(thread -> factorySupplier.apply(thread)::createLong);
+            total = total.add(createStats(result));
         }
         return total;
     }
 
-    private Tsid[][] executeTest(Function<Integer, TsidFactory> factoryFunction) {
-        CountDownLatch endLatch = new CountDownLatch(threadCount);
-        Tsid[][] array = new Tsid[threadCount][iterationCount];
-        for (int thread = 0; thread < threadCount; thread++) {
-            final int threadId = thread;
-            new Thread(() -> {
-                TsidFactory factory = factoryFunction.apply(threadId);
-                for (int iteration = 0; iteration < iterationCount; iteration++) {
-                    Tsid tsid = factory.create();
-                    array[threadId][iteration] = tsid;
-                }
-                endLatch.countDown();
-            }).start();
-        }
-        try {
-            endLatch.await();
-        } catch (InterruptedException ex) {
-            throw new RuntimeException(ex);
-        }
-        return array;
-    }
-
-    private Stats createStats(long startNanos, Tsid[][] array) {
-        long elapsedNanos = System.nanoTime() - startNanos;
-        final long elapsedMillis = Math.round(elapsedNanos / 1_000_000.0);
-
-        int duplicatedCounter = 0;
-        final int size = threadCount * iterationCount;
-        Set<Tsid> set = new HashSet<>(size);
-        int sequentialCounter = 0;
-        for (int thread = 0; thread < threadCount; thread++) {
-            Tsid last = null;
-            for (int iteration = 0; iteration < iterationCount; iteration++) {
-                Tsid tsid = array[thread][iteration];
-                if (!set.add(tsid)) {
-                    duplicatedCounter++;
-                }
-                if (last == null || last.toLong() < tsid.toLong()) {
-                    sequentialCounter++;
-                }
-                last = tsid;
-            }
-        }
-
-        return new Stats(size, duplicatedCounter, elapsedMillis, sequentialCounter);
+    private Stats createStats(StressResult result) {
+        final int size = (int)result.size();
+        final long elapsedMillis = Math.round(result.elapsedNanos() / 1_000_000.0);
+        return new Stats(size, (int)result.duplicates(), elapsedMillis, size - (int)result.outOfOrder());
     }
 
     public static class Builder {
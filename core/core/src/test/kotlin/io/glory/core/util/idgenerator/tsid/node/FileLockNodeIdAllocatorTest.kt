@@ -0,0 +1,108 @@
+package io.glory.core.util.idgenerator.tsid.node
+
+import io.glory.core.util.idgenerator.TsidLayout
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.assertThrows
+import java.nio.file.Files
+import java.nio.file.Path
+import java.time.Duration
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.test.Test
+
+class FileLockNodeIdAllocatorTest {
+
+    private val directory: Path = Files.createTempDirectory("tsid-nodes")
+
+    @AfterEach
+    fun tearDown() {
+        directory.toFile().deleteRecursively()
+    }
+
+    @Test
+    fun `lease every node once`() {
+        // given
+        val allocator = FileLockNodeIdAllocator(directory)
+
+        // when
+        val leases = (0 until 4).map { allocator.lease(2) }
+
+        // then
+        assertThat(leases.map { it.node }.sorted()).isEqualTo(listOf(0, 1, 2, 3))
+        assertThrows(IllegalStateException::class.java) { allocator.lease(2) }
+
+        // a released node can be leased again
+        val released = leases[1].node
+        leases[1].close()
+        allocator.lease(2).use { assertThat(it.node).isEqualTo(released) }
+
+        leases.forEach { it.close() }
+    }
+
+    @Test
+    fun `renew writes a heartbeat`() {
+        FileLockNodeIdAllocator(directory).lease(10).use { lease ->
+            // when
+            val renewed = lease.renew()
+
+            // then
+            assertThat(renewed).isTrue()
+            val heartbeat = Files.readString(directory.resolve("node-%04d.lock".format(lease.node)))
+            assertThat(heartbeat).startsWith("${ProcessHandle.current().pid()} ")
+        }
+        assertThrows(IllegalArgumentException::class.java) { FileLockNodeIdAllocator(directory).lease(21) }
+    }
+
+    @Test
+    fun `keeper reports a lost lease once`() {
+        // given
+        val renewals = AtomicInteger()
+        val lost = CountDownLatch(1)
+        val lease = object : NodeLease {
+            override val node = 7
+            override fun renew() = renewals.incrementAndGet() < 3
+            override fun close() {}
+        }
+
+        // when
+        NodeLeaseKeeper(lease, Duration.ofMillis(5)) { lost.countDown() }.use { keeper ->
+            // then
+            assertThat(lost.await(5, TimeUnit.SECONDS)).isTrue()
+            assertThat(keeper.isValid).isFalse()
+            assertThat(keeper.node).isEqualTo(7)
+            Thread.sleep(50)
+            assertThat(renewals.get()).isEqualTo(3)
+        }
+    }
+
+    @Test
+    fun `leased generator fails once the lease is lost`() {
+        // given
+        val renew = AtomicBoolean(true)
+        val lost = CountDownLatch(1)
+        val lease = object : NodeLease {
+            override val node = 37
+            override fun renew() = renew.get()
+            override fun close() {}
+        }
+
+        NodeLeaseKeeper(lease, Duration.ofMillis(5)) { lost.countDown() }.use { keeper ->
+            val generator = LeasedTsidGenerator(keeper)
+            val id = generator.generate()
+            assertThat(TsidLayout.DEFAULT.nodeOf(id)).isEqualTo(37)
+
+            // when
+            renew.set(false)
+            assertThat(lost.await(5, TimeUnit.SECONDS)).isTrue()
+
+            // then
+            assertThrows(IllegalStateException::class.java) { generator.generate() }
+            assertThrows(IllegalStateException::class.java) { generator.generate(LongArray(4), 0, 4) }
+            assertThrows(IllegalStateException::class.java) { generator.reserve(4) }
+        }
+    }
+
+}
@@ -0,0 +1,405 @@
+package io.glory.core.util.idgenerator.stress;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.LongSupplier;
+
+import io.glory.core.util.idgenerator.StripedTsidGenerator;
+import io.glory.core.util.idgenerator.TsidGenerator;
+import io.glory.core.util.idgenerator.TsidLayout;
+
+/**
+ * Checks that IDs generated by several JVMs on this host are unique.
+ * <p>
+ * Each child JVM runs a {@link StressHarness} with its own generator and writes
+ * its IDs, sorted, to a file of the working directory. The children start
+ * generating together, once they are all ready, and the files are merged at the
+ * end, so the parent needs almost no memory whatever the number of IDs.
+ * <pre>{@code
+ * StressResult result = ForkedStress.builder(directory)
+ *         .withGenerator(ForkedStress.Generator.SHARED_STATE)
+ *         .withProcesses(8)
+ *         .withJvmOptions("-Xmx1g")
+ *         .build()
+ *         .run();
+ * }</pre>
+ * The children run with the class path of the current JVM.
+ */
+public final class ForkedStress {
+
+    private static final String       START = "start";
+    private final        Path         directory;
+    private final        Generator    generator;
+    private final        int          processes;
+    private final        int          threads;
+    private final        int          idsPerThread;
+    private final        String       threadKind;
+    private final        List<String> jvmOptions;
+
+    private ForkedStress(Builder builder) {
+        this.directory = builder.directory;
+        this.generator = builder.getGenerator();
+        this.processes = builder.getProcesses();
+        this.threads = builder.getHarness().getThreads();
+        this.idsPerThread = builder.getHarness().getIdsPerThread();
+        this.threadKind = builder.getHarness().getThreadKind().name();
+        this.jvmOptions = builder.jvmOptions;
+    }
+
+    /**
+     * Returns a builder of tests working in a directory.
+     *
+     * @param directory the directory of the id files, created if missing
+     * @return {@link Builder}
+     */
+    public static Builder builder(Path directory) {
+        return new Builder(directory);
+    }
+
+    /**
+     * Runs the child JVMs and merges their IDs.
+     *
+     * @return the result of all the children; the elapsed time is the one of the slowest child
+     * @throws IllegalStateException if a child fails
+     * @throws UncheckedIOException  if the files cannot be written or read
+     */
+    public StressResult run() {
+        try {
+            Files.createDirectories(directory);
+            Files.deleteIfExists(directory.resolve(START));
+            final List<Process> children = new ArrayList<>(processes);
+            for (int process = 0; process < processes; process++) {
+                Files.deleteIfExists(ready(directory, process));
+                children.add(fork(process));
+            }
+            try {
+                awaitReady(children);
+                Files.createFile(directory.resolve(START));
+                for (int process = 0; process < processes; process++) {
+                    final int exitValue = children.get(process).waitFor();
+                    if (exitValue != 0) {
+                        throw new IllegalStateException(
+                                String.format("Child JVM %s exited with %s", process, exitValue));
+                    }
+                }
+            } finally {
+                children.forEach(Process::destroy);
+            }
+            return merge();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the child JVMs", e);
+        }
+    }
+
+    /**
+     * The entry point of a child JVM.
+     *
+     * @param args generator, process, threads, ids per thread, thread kind, directory
+     * @throws IOException          if the files cannot be written
+     * @throws InterruptedException if interrupted before the start
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        final Generator generator = Generator.valueOf(args[0]);
+        final int process = Integer.parseInt(args[1]);
+        final Path directory = Path.of(args[5]);
+        final StressHarness harness = StressHarness.builder()
+                .withThreads(Integer.parseInt(args[2]))
+                .withIdsPerThread(Integer.parseInt(args[3]))
+                .withThreadKind(StressHarness.ThreadKind.valueOf(args[4]))
+                .build();
+        final LongSupplier shared = generator.create(process, directory);
+
+        Files.createFile(ready(directory, process));
+        while (!Files.exists(directory.resolve(START))) {
+            Thread.sleep(1);
+        }
+
+        final StressResult result;
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(ids(directory, process)), 1 << 16))) {
+            result = harness.run(thread -> shared, id -> {
+                try {
+                    out.writeLong(id);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(result(directory, process))))) {
+            out.writeLong(result.size());
+            out.writeLong(result.outOfOrder());
+            out.writeLong(result.elapsedNanos());
+            result.latency().writeTo(out);
+        }
+        System.out.printf("[process %s] %s%n", process, result);
+    }
+
+    private Process fork(int process) throws IOException {
+        final List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(ForkedStress.class.getName());
+        command.add(generator.name());
+        command.add(String.valueOf(process));
+        command.add(String.valueOf(threads));
+        command.add(String.valueOf(idsPerThread));
+        command.add(threadKind);
+        command.add(directory.toString());
+        return new ProcessBuilder(command).inheritIO().start();
+    }
+
+    private void awaitReady(List<Process> children) throws InterruptedException {
+        for (int process = 0; process < processes; process++) {
+            while (!Files.exists(ready(directory, process))) {
+                if (!children.get(process).isAlive()) {
+                    throw new IllegalStateException(String.format(
+                            "Child JVM %s exited with %s before the start", process, children.get(process).exitValue()));
+                }
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    private StressResult merge() throws IOException {
+        long size = 0;
+        long outOfOrder = 0;
+        long elapsedNanos = 0;
+        final LatencyHistogram latency = new LatencyHistogram();
+        for (int process = 0; process < processes; process++) {
+            try (DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(Files.newInputStream(result(directory, process))))) {
+                size += in.readLong();
+                outOfOrder += in.readLong();
+                elapsedNanos = Math.max(elapsedNanos, in.readLong());
+                latency.merge(LatencyHistogram.readFrom(in));
+            }
+        }
+
+        final List<FileRun> runs = new ArrayList<>(processes);
+        try {
+            for (int process = 0; process < processes; process++) {
+                runs.add(new FileRun(ids(directory, process)));
+            }
+            final long duplicates = SortedMerge.countDuplicates(runs, id -> {
+            });
+            return new StressResult(size, duplicates, outOfOrder, elapsedNanos, latency);
+        } finally {
+            for (FileRun run : runs) {
+                run.in.close();
+            }
+        }
+    }
+
+    private static Path ready(Path directory, int process) {
+        return directory.resolve(process + ".ready");
+    }
+
+    private static Path ids(Path directory, int process) {
+        return directory.resolve(process + ".ids");
+    }
+
+    private static Path result(Path directory, int process) {
+        return directory.resolve(process + ".result");
+    }
+
+    /**
+     * The generator of a child JVM, shared by its threads.
+     */
+    public enum Generator {
+
+        /**
+         * {@link TsidGenerator} with the process identifier of the child, 0 ~ 31.
+         */
+        DISTINCT_PROCESSES {
+            @Override
+            LongSupplier create(int process, Path directory) {
+                return new TsidGenerator(0, process)::generate;
+            }
+        },
+
+        /**
+         * {@link StripedTsidGenerator} with the process identifier of the child, 0 ~ 31.
+         */
+        STRIPED_DISTINCT_PROCESSES {
+            @Override
+            LongSupplier create(int process, Path directory) {
+                return new StripedTsidGenerator(0, process)::generate;
+            }
+        },
+
+        /**
+         * {@link TsidGenerator} with the same node in every child, sharing a state file.
+         */
+        SHARED_STATE {
+            @Override
+            LongSupplier create(int process, Path directory) {
+                return new TsidGenerator(0, 0, TsidLayout.DEFAULT, directory.resolve("tsid.state"))::generate;
+            }
+        };
+
+        abstract LongSupplier create(int process, Path directory);
+
+    }
+
+    /**
+     * A file of sorted IDs.
+     */
+    private static class FileRun implements PrimitiveIterator.OfLong {
+
+        private final DataInputStream in;
+        private       long            remaining;
+
+        FileRun(Path path) throws IOException {
+            this.remaining = Files.size(path) / Long.BYTES;
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16));
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public long nextLong() {
+            if (remaining == 0) {
+                throw new NoSuchElementException();
+            }
+            try {
+                remaining--;
+                return in.readLong();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+    }
+
+    /**
+     * A nested class that builds a {@link ForkedStress}.
+     */
+    public static class Builder {
+
+        private final Path                  directory;
+        private final StressHarness.Builder harness    = StressHarness.builder();
+        private       Generator             generator;
+        private       Integer               processes;
+        private       List<String>          jvmOptions = List.of();
+
+        private Builder(Path directory) {
+            if (directory == null) {
+                throw new IllegalArgumentException("Directory must not be null");
+            }
+            this.directory = directory;
+        }
+
+        /**
+         * Set the generator of the children. Default: {@link Generator#DISTINCT_PROCESSES}.
+         *
+         * @param generator the generator
+         * @return {@link Builder}
+         */
+        public Builder withGenerator(Generator generator) {
+            this.generator = generator;
+            return this;
+        }
+
+        /**
+         * Set the number of child JVMs. Default: 2.
+         *
+         * @param processes a number between 1 and 32
+         * @return {@link Builder}
+         */
+        public Builder withProcesses(Integer processes) {
+            this.processes = processes;
+            return this;
+        }
+
+        /**
+         * @param threads the number of threads of each child
+         * @return {@link Builder}
+         * @see StressHarness.Builder#withThreads(Integer)
+         */
+        public Builder withThreads(Integer threads) {
+            harness.withThreads(threads);
+            return this;
+        }
+
+        /**
+         * @param idsPerThread the number of IDs generated by each thread
+         * @return {@link Builder}
+         * @see StressHarness.Builder#withIdsPerThread(Integer)
+         */
+        public Builder withIdsPerThread(Integer idsPerThread) {
+            harness.withIdsPerThread(idsPerThread);
+            return this;
+        }
+
+        /**
+         * @param threadKind platform or virtual threads
+         * @return {@link Builder}
+         * @see StressHarness.Builder#withThreadKind(StressHarness.ThreadKind)
+         */
+        public Builder withThreadKind(StressHarness.ThreadKind threadKind) {
+            harness.withThreadKind(threadKind);
+            return this;
+        }
+
+        /**
+         * Set the options of the child JVMs, for example {@code -Xmx1g}.
+         *
+         * @param jvmOptions the options
+         * @return {@link Builder}
+         */
+        public Builder withJvmOptions(String... jvmOptions) {
+            this.jvmOptions = List.of(jvmOptions);
+            return this;
+        }
+
+        /**
+         * @return {@link ForkedStress}
+         * @throws IllegalArgumentException if an option is out of range
+         */
+        public ForkedStress build() {
+            return new ForkedStress(this);
+        }
+
+        StressHarness.Builder getHarness() {
+            return harness;
+        }
+
+        Generator getGenerator() {
+            if (this.generator == null) {
+                this.generator = Generator.DISTINCT_PROCESSES;
+            }
+            return this.generator;
+        }
+
+        int getProcesses() {
+            if (this.processes == null) {
+                this.processes = 2;
+            }
+            if (processes < 1 || processes > 32) {
+                throw new IllegalArgumentException(String.format("Processes out of range [1, 32]: %s", processes));
+            }
+            return this.processes;
+        }
+
+    }
+
+}
@@ -0,0 +1,141 @@
+package io.glory.core.util.idgenerator.stress;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A histogram of latencies in nanoseconds, with buckets of 1/8 of a power of two.
+ * <p>
+ * Values below 16ns are counted exactly, larger values within 12.5%. The
+ * histogram has a fixed size whatever the number of values, so it can record
+ * every call of a stress test. This class is not thread-safe: each thread
+ * records in its own histogram, then the histograms are merged.
+ */
+public final class LatencyHistogram {
+
+    private static final int    SUB_BITS = 3;
+    private static final int    LINEAR   = 2 << SUB_BITS;
+    private static final int    BUCKETS  = ((Long.SIZE - 2 - 2) << SUB_BITS) + (1 << SUB_BITS);
+    private final        long[] counts   = new long[BUCKETS];
+    private              long   count;
+    private              long   max;
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos the latency in nanoseconds, negative values count as 0
+     */
+    public void record(long nanos) {
+        final long value = Math.max(nanos, 0);
+        counts[index(value)]++;
+        count++;
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds the latencies of another histogram.
+     *
+     * @param other a histogram
+     * @return this histogram
+     */
+    public LatencyHistogram merge(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        max = Math.max(max, other.max);
+        return this;
+    }
+
+    /**
+     * @return the number of recorded latencies
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @return the highest recorded latency
+     */
+    public long max() {
+        return max;
+    }
+
+    /**
+     * Returns the latency under which a percentage of the values are, rounded up
+     * to the end of its bucket.
+     *
+     * @param percent 0 ~ 100
+     * @return the latency in nanoseconds, or 0 if the histogram is empty
+     * @throws IllegalArgumentException if the percentage is out of range
+     */
+    public long percentile(double percent) {
+        if (percent < 0 || percent > 100) {
+            throw new IllegalArgumentException(String.format("Percentile out of range [0, 100]: %s", percent));
+        }
+        final long rank = Math.max(1, (long)Math.ceil(count * percent / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Writes the histogram, to be read by {@link #readFrom(DataInput)} in another JVM.
+     *
+     * @param out the output
+     * @throws IOException if the output fails
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeLong(count);
+        out.writeLong(max);
+        for (long bucket : counts) {
+            out.writeLong(bucket);
+        }
+    }
+
+    /**
+     * @param in the input
+     * @return a histogram written by {@link #writeTo(DataOutput)}
+     * @throws IOException if the input fails
+     */
+    public static LatencyHistogram readFrom(DataInput in) throws IOException {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.count = in.readLong();
+        histogram.max = in.readLong();
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram.counts[i] = in.readLong();
+        }
+        return histogram;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("p50=%sns, p99=%sns, p99.9=%sns, max=%sns",
+                percentile(50), percentile(99), percentile(99.9), max);
+    }
+
+    private static int index(long value) {
+        if (value < LINEAR) {
+            return (int)value;
+        }
+        final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        final int sub = (int)(value >>> (exponent - SUB_BITS)) & ((1 << SUB_BITS) - 1);
+        return ((exponent - SUB_BITS + 1) << SUB_BITS) + sub;
+    }
+
+    private static long upperBound(int index) {
+        if (index < LINEAR) {
+            return index;
+        }
+        final int exponent = (index >>> SUB_BITS) + SUB_BITS - 1;
+        final long lower = (long)((1 << SUB_BITS) + (index & ((1 << SUB_BITS) - 1))) << (exponent - SUB_BITS);
+        return lower + (1L << (exponent - SUB_BITS)) - 1;
+    }
+
+}
@@ -0,0 +1,78 @@
+package io.glory.core.util.idgenerator.stress;
+
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.function.LongConsumer;
+
+/**
+ * Merges sorted runs of IDs in a single pass, with a heap of the run heads.
+ * <p>
+ * Equal IDs end up next to each other, so duplicates are counted without a
+ * set: the memory is one head per run, whatever the number of IDs.
+ */
+final class SortedMerge {
+
+    private SortedMerge() {
+    }
+
+    /**
+     * @param runs   runs of ids, each one in ascending order
+     * @param output receives every id in ascending order, duplicates included
+     * @return the number of ids equal to the previous one
+     */
+    static long countDuplicates(List<? extends PrimitiveIterator.OfLong> runs, LongConsumer output) {
+        final long[] heads = new long[runs.size()];
+        final int[] heap = new int[runs.size()];
+        int size = 0;
+        for (int run = 0; run < runs.size(); run++) {
+            if (runs.get(run).hasNext()) {
+                heads[run] = runs.get(run).nextLong();
+                heap[size++] = run;
+            }
+        }
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(heap, heads, size, i);
+        }
+
+        long duplicates = 0;
+        long previous = 0;
+        boolean first = true;
+        while (size > 0) {
+            final int run = heap[0];
+            final long id = heads[run];
+            if (!first && id == previous) {
+                duplicates++;
+            }
+            output.accept(id);
+            previous = id;
+            first = false;
+            if (runs.get(run).hasNext()) {
+                heads[run] = runs.get(run).nextLong();
+            } else {
+                heap[0] = heap[--size];
+            }
+            siftDown(heap, heads, size, 0);
+        }
+        return duplicates;
+    }
+
+    private static void siftDown(int[] heap, long[] heads, int size, int index) {
+        final int run = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heads[heap[child + 1]] < heads[heap[child]]) {
+                child++;
+            }
+            if (heads[heap[child]] >= heads[run]) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = run;
+    }
+
+}
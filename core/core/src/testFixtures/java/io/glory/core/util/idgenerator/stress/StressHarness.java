@@ -0,0 +1,247 @@
+package io.glory.core.util.idgenerator.stress;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Generates IDs from many threads at once and checks that they are unique.
+ * <p>
+ * Each thread writes its IDs in its own {@code long[]} and records the latency
+ * of every call. The arrays are then sorted and merged, which counts the
+ * duplicates without boxing the IDs: the harness needs 8 bytes per ID, so a
+ * single JVM can check hundreds of millions of IDs. Use {@link ForkedStress} to
+ * check IDs generated by several JVMs.
+ * <pre>{@code
+ * StressResult result = StressHarness.builder()
+ *         .withThreads(32)
+ *         .withIdsPerThread(1_000_000)
+ *         .withThreadKind(StressHarness.ThreadKind.VIRTUAL)
+ *         .build()
+ *         .run(thread -> idGenerator::generate);
+ * }</pre>
+ */
+public final class StressHarness {
+
+    private final int        threads;
+    private final int        idsPerThread;
+    private final ThreadKind threadKind;
+
+    private StressHarness(Builder builder) {
+        this.threads = builder.getThreads();
+        this.idsPerThread = builder.getIdsPerThread();
+        this.threadKind = builder.getThreadKind();
+    }
+
+    /**
+     * @return {@link Builder}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Runs the test once.
+     *
+     * @param generators returns the generator of a thread, given its index; called
+     *                   by the thread before the start
+     * @return the result
+     * @throws IllegalStateException if a generator fails
+     */
+    public StressResult run(IntFunction<? extends LongSupplier> generators) {
+        return run(generators, id -> {
+        });
+    }
+
+    /**
+     * Runs the test once, passing the IDs to an output in ascending order.
+     *
+     * @param generators returns the generator of a thread, given its index; called
+     *                   by the thread before the start
+     * @param output     receives every id in ascending order, duplicates included
+     * @return the result
+     * @throws IllegalStateException if a generator fails
+     */
+    public StressResult run(IntFunction<? extends LongSupplier> generators, LongConsumer output) {
+
+        final long[][] ids = new long[threads][idsPerThread];
+        final LatencyHistogram[] latencies = new LatencyHistogram[threads];
+        final CountDownLatch ready = new CountDownLatch(threads);
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        final Thread.Builder builder = threadKind == ThreadKind.VIRTUAL
+                ? Thread.ofVirtual().name("stress-", 0)
+                : Thread.ofPlatform().name("stress-", 0);
+        final Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int thread = t;
+            latencies[t] = new LatencyHistogram();
+            workers[t] = builder.unstarted(() -> {
+                final LongSupplier generator;
+                try {
+                    generator = generators.apply(thread);
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                    return;
+                } finally {
+                    ready.countDown();
+                }
+                try {
+                    start.await();
+                    generate(generator, ids[thread], latencies[thread]);
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            workers[t].start();
+        }
+
+        final long elapsedNanos;
+        try {
+            ready.await();
+            final long startNanos = System.nanoTime();
+            start.countDown();
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            elapsedNanos = System.nanoTime() - startNanos;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the threads", e);
+        }
+        if (failure.get() != null) {
+            throw new IllegalStateException("Generator failed", failure.get());
+        }
+
+        final LatencyHistogram latency = new LatencyHistogram();
+        long outOfOrder = 0;
+        final List<PrimitiveIterator.OfLong> runs = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            latency.merge(latencies[t]);
+            outOfOrder += countOutOfOrder(ids[t]);
+            Arrays.parallelSort(ids[t]);
+            runs.add(Arrays.stream(ids[t]).iterator());
+        }
+        final long duplicates = SortedMerge.countDuplicates(runs, output);
+        return new StressResult((long)threads * idsPerThread, duplicates, outOfOrder, elapsedNanos, latency);
+    }
+
+    private static void generate(LongSupplier generator, long[] ids, LatencyHistogram latency) {
+        long before = System.nanoTime();
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = generator.getAsLong();
+            final long after = System.nanoTime();
+            latency.record(after - before);
+            before = after;
+        }
+    }
+
+    private static long countOutOfOrder(long[] ids) {
+        long outOfOrder = 0;
+        for (int i = 1; i < ids.length; i++) {
+            if (ids[i] <= ids[i - 1]) {
+                outOfOrder++;
+            }
+        }
+        return outOfOrder;
+    }
+
+    /**
+     * The kind of the generating threads.
+     */
+    public enum ThreadKind {
+        PLATFORM,
+        VIRTUAL
+    }
+
+    /**
+     * A nested class that builds a {@link StressHarness}.
+     */
+    public static class Builder {
+
+        private Integer    threads;
+        private Integer    idsPerThread;
+        private ThreadKind threadKind;
+
+        private Builder() {
+        }
+
+        /**
+         * Set the number of threads. Default: the number of processors.
+         *
+         * @param threads a number between 1 and 100,000
+         * @return {@link Builder}
+         */
+        public Builder withThreads(Integer threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Set the number of IDs generated by each thread. Default: 100,000.
+         *
+         * @param idsPerThread a number between 1 and 2^30
+         * @return {@link Builder}
+         */
+        public Builder withIdsPerThread(Integer idsPerThread) {
+            this.idsPerThread = idsPerThread;
+            return this;
+        }
+
+        /**
+         * Set the kind of the threads. Default: {@link ThreadKind#PLATFORM}.
+         *
+         * @param threadKind platform or virtual threads
+         * @return {@link Builder}
+         */
+        public Builder withThreadKind(ThreadKind threadKind) {
+            this.threadKind = threadKind;
+            return this;
+        }
+
+        /**
+         * @return {@link StressHarness}
+         * @throws IllegalArgumentException if an option is out of range
+         */
+        public StressHarness build() {
+            return new StressHarness(this);
+        }
+
+        int getThreads() {
+            if (this.threads == null) {
+                this.threads = Runtime.getRuntime().availableProcessors();
+            }
+            if (threads < 1 || threads > 100_000) {
+                throw new IllegalArgumentException(String.format("Threads out of range [1, 100000]: %s", threads));
+            }
+            return this.threads;
+        }
+
+        int getIdsPerThread() {
+            if (this.idsPerThread == null) {
+                this.idsPerThread = 100_000;
+            }
+            if (idsPerThread < 1 || idsPerThread > (1 << 30)) {
+                throw new IllegalArgumentException(
+                        String.format("IDs per thread out of range [1, 2^30]: %s", idsPerThread));
+            }
+            return this.idsPerThread;
+        }
+
+        ThreadKind getThreadKind() {
+            if (this.threadKind == null) {
+                this.threadKind = ThreadKind.PLATFORM;
+            }
+            return this.threadKind;
+        }
+
+    }
+
+}
@@ -0,0 +1,41 @@
+package io.glory.core.util.idgenerator.stress;
+
+/**
+ * The outcome of a stress test.
+ *
+ * @param size         the number of generated IDs
+ * @param duplicates   the number of IDs equal to an ID generated before
+ * @param outOfOrder   the number of IDs not greater than the previous ID of the same thread
+ * @param elapsedNanos the time spent generating
+ * @param latency      the latency of every generation
+ */
+public record StressResult(long size, long duplicates, long outOfOrder, long elapsedNanos, LatencyHistogram latency) {
+
+    /**
+     * @return the number of IDs generated per millisecond
+     */
+    public double opsPerMillis() {
+        return size * 1_000_000.0 / Math.max(elapsedNanos, 1);
+    }
+
+    /**
+     * @return true if no ID was generated twice
+     */
+    public boolean isUnique() {
+        return duplicates == 0;
+    }
+
+    /**
+     * @return true if every thread received IDs in ascending order
+     */
+    public boolean isSequential() {
+        return outOfOrder == 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ids: %,d, duplicates: %,d, out of order: %,d, op/ms: %,.0f, latency: %s",
+                size, duplicates, outOfOrder, opsPerMillis(), latency);
+    }
+
+}